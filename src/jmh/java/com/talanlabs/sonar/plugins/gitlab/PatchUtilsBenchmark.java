@@ -0,0 +1,121 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.AbstractMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Regex parser against single pass scanner on generated unified diffs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PatchUtilsBenchmark {
+
+    private static final Pattern PATCH_PATTERN = Pattern.compile("@@\\p{Space}-[0-9]+(?:,[0-9]+)?\\p{Space}\\+([0-9]+)(?:,[0-9]+)?\\p{Space}@@.*");
+
+    @Param({ "1", "50" })
+    public int sizeInMb;
+
+    private String patch;
+
+    @Setup
+    public void setup() {
+        patch = generatePatch(sizeInMb * 1024 * 1024);
+    }
+
+    @Benchmark
+    public Set<Map.Entry<Integer, String>> regex() {
+        return getPositionsFromPatch(patch);
+    }
+
+    @Benchmark
+    public PatchLines scanner() {
+        return PatchUtils.getPatchLines(patch);
+    }
+
+    /**
+     * Former regex parser of PatchUtils, kept as baseline
+     */
+    private static Set<Map.Entry<Integer, String>> getPositionsFromPatch(String patch) {
+        Set<Map.Entry<Integer, String>> positions = new HashSet<>();
+
+        int currentLine = -1;
+        for (String line : patch.split("[\\r\\n]+")) {
+            if (line.startsWith("@")) {
+                Matcher matcher = PATCH_PATTERN.matcher(line);
+                if (!matcher.matches()) {
+                    throw new IllegalStateException("Unable to parse line:\n\t" + line + "\nFull patch: \n\t" + patch);
+                }
+                currentLine = Integer.parseInt(matcher.group(1));
+            } else if (line.startsWith("+")) {
+                positions.add(new AbstractMap.SimpleImmutableEntry<>(currentLine, line.replaceFirst("\\+", "")));
+                currentLine++;
+            } else if (line.startsWith(" ")) {
+                currentLine++;
+            }
+        }
+
+        return positions;
+    }
+
+    /**
+     * Hunks of 5 context lines, 4 removed lines and 8 added lines, until size chars
+     */
+    static String generatePatch(int size) {
+        StringBuilder sb = new StringBuilder(size + 256);
+        sb.append("--- a/src/main/java/Generated.java\n+++ b/src/main/java/Generated.java\n");
+        int oldLine = 1;
+        int newLine = 1;
+        while (sb.length() < size) {
+            sb.append("@@ -").append(oldLine).append(",9 +").append(newLine).append(",13 @@ public class Generated {\n");
+            for (int i = 0; i < 5; i++) {
+                sb.append("     private static final String CONTEXT_").append(newLine + i).append(" = \"context\";\n");
+            }
+            for (int i = 0; i < 4; i++) {
+                sb.append("-    private static final String REMOVED_").append(oldLine + i).append(" = \"removed\";\n");
+            }
+            for (int i = 0; i < 8; i++) {
+                sb.append("+    private static final String ADDED_").append(newLine + 5 + i).append(" = \"added value ").append(i).append("\";\n");
+            }
+            oldLine += 9;
+            newLine += 13;
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import com.talanlabs.sonar.plugins.gitlab.models.Issue;
+import com.talanlabs.sonar.plugins.gitlab.models.JsonMode;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.CoreProperties;
+import org.sonar.api.batch.rule.Severity;
+import org.sonar.api.config.PropertyDefinitions;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.utils.System2;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Reporting pipeline after issues are loaded, with a mocked CommitFacade
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ReportingBenchmark {
+
+    private static final Severity[] SEVERITIES = Severity.values();
+
+    @Param({ "10", "1000", "100000" })
+    public int issueCount;
+
+    private List<Issue> issues;
+    private ReporterBuilder reporterBuilder;
+    private Reporter codeClimateReporter;
+    private Reporter sastReporter;
+    private GitLabPluginConfiguration defaultTemplateConfig;
+    private GitLabPluginConfiguration freemarkerTemplateConfig;
+    private Reporter globalReporter;
+    private MarkDownUtils markDownUtils;
+    private FreemarkerTemplates freemarkerTemplates;
+
+    @Setup
+    public void setup() throws IOException {
+        markDownUtils = new MarkDownUtils();
+        freemarkerTemplates = new FreemarkerTemplates();
+
+        issues = new ArrayList<>(issueCount);
+        for (int i = 0; i < issueCount; i++) {
+            File file = new File("src/main/java/File" + (i % 100) + ".java");
+            issues.add(Issue.newBuilder().key("AX" + i).componentKey("foo:" + file.getPath()).file(file).line(i % 500 + 1).severity(SEVERITIES[i % SEVERITIES.length])
+                    .newIssue(true).message("Issue message \"" + i + "\"\nwith a second line").ruleKey("repo:rule" + (i % 50)).build());
+        }
+
+        CommitFacade commitFacade = Mockito.mock(CommitFacade.class);
+        Mockito.when(commitFacade.hasFile(any(File.class))).thenReturn(true);
+        Mockito.when(commitFacade.getRevisionForLine(any(File.class), anyInt())).thenAnswer(invocation -> invocation.<Integer>getArgument(1) % 2 == 0 ? "abc123" : null);
+        Mockito.when(commitFacade.getGitLabUrl(any(), any(File.class), any())).thenReturn("https://gitlab.com/test/test/blob/abc123/src/main/java/File.java#L1");
+        Mockito.when(commitFacade.getSrc(any(File.class))).thenReturn("src/main/java/File.java");
+        Mockito.when(commitFacade.getRuleLink(anyString())).thenReturn("http://myserver/coding_rules#rule_key=repo%3Arule");
+        Mockito.when(commitFacade.getUsernameForRevision(anyString())).thenReturn("john");
+
+        reporterBuilder = new ReporterBuilder(newConfig(JsonMode.NONE, null), Mockito.mock(SonarFacade.class), commitFacade, markDownUtils, freemarkerTemplates);
+
+        codeClimateReporter = newReporter(newConfig(JsonMode.CODECLIMATE, null));
+        sastReporter = newReporter(newConfig(JsonMode.SAST, null));
+
+        defaultTemplateConfig = newConfig(JsonMode.NONE, null);
+        freemarkerTemplateConfig = newConfig(JsonMode.NONE, new String(Files.readAllBytes(Paths.get("templates/global/default.md")), StandardCharsets.UTF_8));
+        globalReporter = newReporter(defaultTemplateConfig);
+    }
+
+    private static GitLabPluginConfiguration newConfig(JsonMode jsonMode, String globalTemplate) {
+        MapSettings settings = new MapSettings(new PropertyDefinitions(System2.INSTANCE, GitLabPlugin.definitions()));
+        settings.setProperty(CoreProperties.SERVER_BASE_URL, "http://myserver");
+        settings.setProperty(GitLabPlugin.GITLAB_COMMIT_SHA, "abc123");
+        settings.setProperty(GitLabPlugin.GITLAB_JSON_MODE, jsonMode.name());
+        if (globalTemplate != null) {
+            settings.setProperty(GitLabPlugin.GITLAB_GLOBAL_TEMPLATE, globalTemplate);
+        }
+        return new GitLabPluginConfiguration(settings.asConfig(), new System2());
+    }
+
+    private Reporter newReporter(GitLabPluginConfiguration config) {
+        Reporter reporter = new Reporter(config);
+        for (Issue issue : issues) {
+            reporter.process(issue, null, "abc123", "https://gitlab.com/test/test/blob/abc123/" + issue.getFile().getPath() + "#L" + issue.getLine(), issue.getFile().getPath(),
+                    "http://myserver/coding_rules#rule_key=" + issue.getRuleKey(), issue.getLine() % 2 == 0);
+        }
+        return reporter;
+    }
+
+    @Benchmark
+    public Reporter reporterBuilderBuild() {
+        return reporterBuilder.build(null, issues);
+    }
+
+    /**
+     * Json report streamed like CommitFacade.writeJsonFile, to a discarding writer to measure serialization only
+     */
+    @Benchmark
+    public void writeJsonCodeClimate() throws IOException {
+        codeClimateReporter.writeJson(Writer.nullWriter());
+    }
+
+    @Benchmark
+    public void writeJsonSast() throws IOException {
+        sastReporter.writeJson(Writer.nullWriter());
+    }
+
+    @Benchmark
+    public String globalCommentDefault() {
+        return new GlobalCommentBuilder(defaultTemplateConfig, "john", null, globalReporter, markDownUtils, freemarkerTemplates).buildForMarkdown();
+    }
+
+    @Benchmark
+    public String globalCommentFreemarker() {
+        return new GlobalCommentBuilder(freemarkerTemplateConfig, "john", null, globalReporter, markDownUtils, freemarkerTemplates).buildForMarkdown();
+    }
+}
@@ -18,10 +18,7 @@ package com.talanlabs.sonar.plugins.gitlab;
 
 import com.talanlabs.sonar.plugins.gitlab.freemarker.*;
 import com.talanlabs.sonar.plugins.gitlab.models.ReportIssue;
-import freemarker.template.Configuration;
-import freemarker.template.Template;
 import freemarker.template.TemplateException;
-import freemarker.template.TemplateExceptionHandler;
 import org.apache.commons.text.StringEscapeUtils;
 import org.sonar.api.batch.rule.Severity;
 import org.sonar.api.utils.MessageException;
@@ -44,17 +41,19 @@ public abstract class AbstractCommentBuilder {
     protected final String revision;
     protected final List<ReportIssue> reportIssues;
     protected final MarkDownUtils markDownUtils;
+    private final FreemarkerTemplates freemarkerTemplates;
     private final String templateName;
     private final String template;
 
     AbstractCommentBuilder(GitLabPluginConfiguration gitLabPluginConfiguration, String revision, List<ReportIssue> reportIssues, MarkDownUtils markDownUtils,
-                           String templateName, String template) {
+                           FreemarkerTemplates freemarkerTemplates, String templateName, String template) {
         super();
 
         this.gitLabPluginConfiguration = gitLabPluginConfiguration;
         this.revision = revision;
         this.reportIssues = reportIssues;
         this.markDownUtils = markDownUtils;
+        this.freemarkerTemplates = freemarkerTemplates;
         this.templateName = templateName;
         this.template = template;
     }
@@ -67,13 +66,8 @@ public abstract class AbstractCommentBuilder {
     }
 
     private String buildFreemarkerComment() {
-        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
-        cfg.setDefaultEncoding("UTF-8");
-        cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-        cfg.setLogTemplateExceptions(false);
-
         try (StringWriter sw = new StringWriter()) {
-            new Template(templateName, template, cfg).process(createContext(), sw);
+            freemarkerTemplates.getTemplate(templateName, template).process(createContext(), sw);
             return StringEscapeUtils.unescapeHtml4(sw.toString());
         } catch (IOException | TemplateException e) {
             LOG.error("Failed to create template {}", templateName, e);
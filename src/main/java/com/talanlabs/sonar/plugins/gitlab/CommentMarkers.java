@@ -0,0 +1,79 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import com.google.common.base.Strings;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.talanlabs.sonar.plugins.gitlab.models.Issue;
+import com.talanlabs.sonar.plugins.gitlab.models.ReportIssue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Hidden markers embedded in the comments posted by the plugin, so that they can be found again by next analyses.
+ * Markers hold the Sonar project key, analyses of other projects on the same commit or merge request never touch them.
+ */
+public class CommentMarkers {
+
+    /**
+     * Fingerprint of the global comment, there is only one per commit or merge request
+     */
+    public static final String GLOBAL_FINGERPRINT = "global";
+
+    private static final Pattern MARKER_PATTERN = Pattern.compile("<!-- sonar-gitlab:(\\S*):([0-9a-z]+) -->\\s*$");
+
+    private CommentMarkers() {
+        // Nothing
+    }
+
+    /**
+     * Fingerprint of the issues of an inline comment, from rule key, path, line and message hash of each issue
+     */
+    public static String fingerprint(List<ReportIssue> reportIssues) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (ReportIssue reportIssue : reportIssues) {
+            Issue issue = reportIssue.getIssue();
+            hasher.putString(String.valueOf(issue.getRuleKey()), StandardCharsets.UTF_8).putByte((byte) 0);
+            hasher.putString(String.valueOf(reportIssue.getFile()), StandardCharsets.UTF_8).putByte((byte) 0);
+            hasher.putInt(issue.getLine() != null ? issue.getLine() : -1);
+            hasher.putLong(Hashing.sha256().hashString(String.valueOf(issue.getMessage()), StandardCharsets.UTF_8).asLong());
+        }
+        return hasher.hash().toString().substring(0, 32);
+    }
+
+    public static String mark(String body, @Nullable String projectKey, String fingerprint) {
+        return body + "\n\n<!-- sonar-gitlab:" + Strings.nullToEmpty(projectKey) + ":" + fingerprint + " -->";
+    }
+
+    /**
+     * @return null if the body has no marker or a marker of another project
+     */
+    @CheckForNull
+    public static String getFingerprint(@Nullable String body, @Nullable String projectKey) {
+        if (body == null) {
+            return null;
+        }
+        Matcher matcher = MARKER_PATTERN.matcher(body);
+        return matcher.find() && matcher.group(1).equals(Strings.nullToEmpty(projectKey)) ? matcher.group(2) : null;
+    }
+}
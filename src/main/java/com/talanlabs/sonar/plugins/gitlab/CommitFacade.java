@@ -27,10 +27,12 @@ import org.sonar.api.utils.log.Loggers;
 import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.util.List;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
@@ -110,6 +112,18 @@ public class CommitFacade {
         return gitLabWrapper.hasSameCommitCommentsForFile(revision, path, lineNumber, body);
     }
 
+    public List<IGitLabApiWrapper.ReviewComment> getReviewComments() {
+        return gitLabWrapper.getReviewComments();
+    }
+
+    public void updateReviewComment(IGitLabApiWrapper.ReviewComment reviewComment, String body) {
+        gitLabWrapper.updateReviewComment(reviewComment, body);
+    }
+
+    public void resolveReviewComment(IGitLabApiWrapper.ReviewComment reviewComment, boolean resolved) {
+        gitLabWrapper.resolveReviewComment(reviewComment, resolved);
+    }
+
     /**
      * Author Email is access only for admin gitlab user but search work for all users
      */
@@ -166,7 +180,10 @@ public class CommitFacade {
         return ruleUrlPrefix + "coding_rules#rule_key=" + encodeForUrl(ruleKey);
     }
 
-    public void writeJsonFile(String json) {
+    /**
+     * Stream json report of reporter to file, without building it in memory
+     */
+    public void writeJsonFile(Reporter reporter) {
         String name = null;
         if (gitLabPluginConfiguration.jsonMode().equals(JsonMode.CODECLIMATE)) {
             name = CODECLIMATE_JSON_NAME;
@@ -175,8 +192,8 @@ public class CommitFacade {
         }
         if (name != null) {
             File file = new File(gitBaseDir, name);
-            try {
-                Files.write(Paths.get(file.getAbsolutePath()), json.getBytes(), StandardOpenOption.CREATE);
+            try (Writer writer = Files.newBufferedWriter(Paths.get(file.getAbsolutePath()), StandardCharsets.UTF_8)) {
+                reporter.writeJson(writer);
             } catch (IOException e) {
                 throw MessageException.of("Failed to write file " + file, e);
             }
@@ -16,6 +16,7 @@
  */
 package com.talanlabs.sonar.plugins.gitlab;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.talanlabs.sonar.plugins.gitlab.models.Issue;
 import com.talanlabs.sonar.plugins.gitlab.models.QualityGate;
 import com.talanlabs.sonar.plugins.gitlab.models.StatusNotificationsMode;
@@ -29,6 +30,10 @@ import org.sonar.api.utils.log.Loggers;
 
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Compute comments to be added on the commit on preview or issue mode only
@@ -77,17 +82,31 @@ public class CommitPublishPostJob implements PostJob {
                 throw MessageException.of("SonarQube failed because sonar.working.directory is null");
             }
             sonarFacade.init(baseDir, workDir);
-            commitFacade.init(baseDir);
 
-            if (StatusNotificationsMode.COMMIT_STATUS.equals(gitLabPluginConfiguration.statusNotificationsMode())) {
-                commitFacade.createOrUpdateSonarQubeStatus(gitLabPluginConfiguration.buildInitState().getMeaning(), "SonarQube analysis in progress");
-            }
             QualityGate qualityGate;
             List<Issue> issues;
-            qualityGate = sonarFacade.loadQualityGate();
-            issues = sonarFacade.getNewIssues();
+            ExecutorService executorService = Executors.newFixedThreadPool(2, new ThreadFactoryBuilder().setNameFormat("gitlab-post-job-%d").setDaemon(true).build());
+            try {
+                // GitLab prefetch does not depend on SonarQube, run it while the compute engine task is processed
+                CompletableFuture<Void> gitLabStage = CompletableFuture.runAsync(() -> initGitLab(baseDir), executorService);
+                // Issues are only up to date on the server once the compute engine task is done
+                CompletableFuture<QualityGate> qualityGateStage = CompletableFuture.supplyAsync(sonarFacade::loadQualityGate, executorService);
+                CompletableFuture<List<Issue>> issuesStage = qualityGateStage.thenApplyAsync(q -> sonarFacade.getNewIssues(), executorService);
+
+                // GitLab must be initialized before any status can be reported, even on failure
+                join(gitLabStage);
+                qualityGate = join(qualityGateStage);
+                issues = join(issuesStage);
+            } finally {
+                executorService.shutdownNow();
+            }
 
-            Reporter report = reporterBuilder.build(qualityGate, issues);
+            Reporter report;
+            try {
+                report = reporterBuilder.build(qualityGate, issues);
+            } finally {
+                sonarFacade.saveRuleCache();
+            }
             notification(report);
 
             if(gitLabPluginConfiguration.failOnQualityGate() && QualityGate.Status.ERROR.equals(qualityGate.getStatus()))
@@ -112,6 +131,29 @@ public class CommitPublishPostJob implements PostJob {
         }
     }
 
+    private void initGitLab(File baseDir) {
+        commitFacade.init(baseDir);
+
+        if (StatusNotificationsMode.COMMIT_STATUS.equals(gitLabPluginConfiguration.statusNotificationsMode())) {
+            commitFacade.createOrUpdateSonarQubeStatus(gitLabPluginConfiguration.buildInitState().getMeaning(), "SonarQube analysis in progress");
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> stage) {
+        try {
+            return stage.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
     private File fileFromProperty(PostJobContext context, String property) {
         String value = context.config().get(property).orElse(null);
         return value != null ? new File(value) : null;
@@ -0,0 +1,181 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import javax.annotation.CheckForNull;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Parsed commit diffs stored on disk, one file per project and commit SHA. A diff never changes for a SHA, so entries are never invalidated,
+ * least recently used files are deleted when the cache is bigger than its max size.
+ */
+public class DiffCache {
+
+    private static final Logger LOG = Loggers.get(DiffCache.class);
+
+    private static final int MAGIC = 0x53474431;
+    private static final String EXTENSION = ".diff";
+    private static final Pattern SHA_PATTERN = Pattern.compile("[0-9a-zA-Z]+");
+
+    private final Path directory;
+    private final long maxSize;
+
+    public DiffCache(File directory, long maxSize) {
+        this.directory = directory.toPath().resolve("diffs");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return null if the diff of the revision is not cached or the cache file is not readable
+     */
+    @CheckForNull
+    public Map<String, PatchLines> get(Integer projectId, String revision) {
+        Path file = getFile(projectId, revision);
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Unknown cache file format");
+            }
+            int fileCount = input.readInt();
+            Map<String, PatchLines> positions = new HashMap<>(fileCount * 2);
+            for (int i = 0; i < fileCount; i++) {
+                String path = input.readUTF();
+                int size = input.readInt();
+                PatchLines.Builder builder = PatchLines.newBuilder();
+                for (int j = 0; j < size; j++) {
+                    builder.add(input.readInt(), input.readLong());
+                }
+                positions.put(path, builder.build());
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return positions;
+        } catch (IOException e) {
+            LOG.debug("Unable to read cached diff " + file, e);
+            delete(file);
+            return null;
+        }
+    }
+
+    public void put(Integer projectId, String revision, Map<String, PatchLines> positions) {
+        Path file = getFile(projectId, revision);
+        if (file == null) {
+            return;
+        }
+        try {
+            CacheFileUtils.write(file, output -> {
+                output.writeInt(MAGIC);
+                output.writeInt(positions.size());
+                for (Map.Entry<String, PatchLines> entry : positions.entrySet()) {
+                    PatchLines lines = entry.getValue();
+                    output.writeUTF(entry.getKey());
+                    output.writeInt(lines.size());
+                    for (int i = 0; i < lines.size(); i++) {
+                        output.writeInt(lines.getNumber(i));
+                        output.writeLong(lines.getHash(i));
+                    }
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            LOG.debug("Unable to cache diff " + file, e);
+        }
+    }
+
+    @CheckForNull
+    private Path getFile(Integer projectId, String revision) {
+        if (projectId == null || revision == null || !SHA_PATTERN.matcher(revision).matches()) {
+            return null;
+        }
+        return directory.resolve(String.valueOf(projectId)).resolve(revision + EXTENSION);
+    }
+
+    /**
+     * Delete least recently used files until the cache fits in its max size. Walks the whole cache, call it once after all puts
+     */
+    public void evict() {
+        try {
+            doEvict();
+        } catch (IOException | UncheckedIOException e) {
+            LOG.debug("Unable to evict cached diffs from " + directory, e);
+        }
+    }
+
+    private void doEvict() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<CacheFile> files = new ArrayList<>();
+        long size = 0;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (path.toString().endsWith(EXTENSION)) {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    files.add(new CacheFile(path, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                    size += attributes.size();
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(f -> f.lastModified));
+        for (CacheFile file : files) {
+            if (size <= maxSize) {
+                break;
+            }
+            delete(file.path);
+            size -= file.size;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.debug("Unable to delete " + file, e);
+        }
+    }
+
+    private static class CacheFile {
+
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+        CacheFile(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
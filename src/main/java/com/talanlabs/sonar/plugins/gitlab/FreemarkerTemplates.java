@@ -0,0 +1,65 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateExceptionHandler;
+import org.sonar.api.scanner.ScannerSide;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Compiled Freemarker templates shared by all comment builders of an analysis, keyed by template name and content hash
+ */
+@ScannerSide
+public class FreemarkerTemplates {
+
+    private final Configuration configuration = createConfiguration();
+    private final Cache<String, Template> templates = CacheBuilder.newBuilder().maximumSize(32).build();
+
+    private static Configuration createConfiguration() {
+        Configuration cfg = new Configuration(Configuration.VERSION_2_3_31);
+        cfg.setDefaultEncoding("UTF-8");
+        cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        cfg.setLogTemplateExceptions(false);
+        return cfg;
+    }
+
+    /**
+     * Get compiled template, parse it only the first time
+     *
+     * @throws IOException if template is not parsable
+     */
+    public Template getTemplate(String templateName, String template) throws IOException {
+        String key = templateName + "@" + Hashing.sha256().hashString(template, StandardCharsets.UTF_8);
+        try {
+            return templates.get(key, () -> new Template(templateName, template, configuration));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
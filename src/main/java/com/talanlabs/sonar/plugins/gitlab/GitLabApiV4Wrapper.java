@@ -19,6 +19,7 @@ package com.talanlabs.sonar.plugins.gitlab;
 import com.talanlabs.gitlab.api.Paged;
 import com.talanlabs.gitlab.api.v4.GitLabAPI;
 import com.talanlabs.gitlab.api.v4.GitlabMergeRequestDiff;
+import com.talanlabs.gitlab.api.v4.http.Query;
 import com.talanlabs.gitlab.api.v4.models.GitlabPosition;
 import com.talanlabs.gitlab.api.v4.models.commits.GitLabCommit;
 import com.talanlabs.gitlab.api.v4.models.commits.GitLabCommitComments;
@@ -27,13 +28,19 @@ import com.talanlabs.gitlab.api.v4.models.discussion.GitlabDiscussion;
 import com.talanlabs.gitlab.api.v4.models.projects.GitLabProject;
 import com.talanlabs.gitlab.api.v4.models.users.GitLabUser;
 import com.talanlabs.sonar.plugins.gitlab.api.GitLabAPIMergeRequestDiscussionExt;
+import com.talanlabs.sonar.plugins.gitlab.api.GitLabApiTransport;
+import com.talanlabs.sonar.plugins.gitlab.api.GitLabHttpTransport;
+import com.talanlabs.sonar.plugins.gitlab.api.HttpClientTransport;
+import com.talanlabs.sonar.plugins.gitlab.api.Paginations;
+import com.talanlabs.sonar.plugins.gitlab.api.GitlabDiscussionStatus;
+import com.talanlabs.sonar.plugins.gitlab.api.GitlabNote;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -46,9 +53,17 @@ public class GitLabApiV4Wrapper implements IGitLabApiWrapper {
     private GitLabAPI gitLabAPIV4;
     private GitLabProject gitLabProject;
     private GitLabAPIMergeRequestDiscussionExt gitLabAPIExt;
+    private GitLabHttpTransport httpTransport;
+    private PersistentValueCache projectIdCache;
+    private PersistentValueCache usernameCache;
+    private final Map<String, Optional<String>> usernamePerRevision = new ConcurrentHashMap<>();
+    private final Map<String, Optional<String>> usernamePerEmail = new ConcurrentHashMap<>();
+    private MergeRequestContext mergeRequestContext;
 
     private Map<String, List<GitLabCommitComments>> commitCommentPerRevision;
-    private Map<String, Map<String, Set<Line>>> patchPositionByFile;
+    private PatchLineIndex patchLineIndex;
+    private final SourceLineCache sourceLineCache = new SourceLineCache();
+    private DiffCache diffCache;
 
     public GitLabApiV4Wrapper(GitLabPluginConfiguration config) {
         this.config = config;
@@ -60,20 +75,73 @@ public class GitLabApiV4Wrapper implements IGitLabApiWrapper {
         if (config.isProxyConnectionEnabled()) {
             gitLabAPIV4.setProxy(config.getHttpProxy());
         }
+        if (config.httpClient()) {
+            httpTransport = new HttpClientTransport(config.url(), config.userToken(), config.ignoreCertificate(), config.isProxyConnectionEnabled() ? config.getHttpProxy() : null, config.prefetchParallelism());
+        }
+        File cacheDir = config.persistentCacheDir();
+        if (cacheDir != null) {
+            diffCache = new DiffCache(cacheDir, config.cacheMaxSize());
+            projectIdCache = new PersistentValueCache(cacheDir, "projects", Long.MAX_VALUE);
+            usernameCache = new PersistentValueCache(cacheDir, "users", config.userCacheTtl());
+        }
         try {
             gitLabProject = getGitLabProject();
 
-            commitCommentPerRevision = getCommitCommentsPerRevision(config.commitSHA());
-            patchPositionByFile = getPatchPositionsToLineMapping(config.commitSHA());
+            prefetchRevisions(config.commitSHA());
         } catch (IOException e) {
             throw new IllegalStateException("Unable to perform GitLab WS operation", e);
         }
     }
 
+    /**
+     * Load commit comments and diffs for all revisions, at most sonar.gitlab.prefetch_parallelism requests at the same time
+     */
+    void prefetchRevisions(List<String> revisions) throws IOException {
+        long start = System.currentTimeMillis();
+
+        Map<String, List<GitLabCommitComments>> comments = new ConcurrentHashMap<>();
+        Map<String, Map<String, PatchLines>> positions = new ConcurrentHashMap<>();
+
+        List<ParallelUtils.Task<Void>> tasks = new ArrayList<>();
+        for (String revision : revisions) {
+            tasks.add(() -> {
+                comments.put(revision, getCommitComments(revision));
+                return null;
+            });
+        }
+        for (String revision : revisions) {
+            tasks.add(() -> {
+                positions.put(revision, getPatchPositions(revision));
+                return null;
+            });
+        }
+        ParallelUtils.invokeAll("gitlab-prefetch", config.prefetchParallelism(), tasks);
+        if (diffCache != null) {
+            diffCache.evict();
+        }
+
+        commitCommentPerRevision = new HashMap<>(comments);
+        patchLineIndex = new PatchLineIndex(revisions, positions);
+
+        LOG.info("Loaded comments and diffs of {} revision(s) from GitLab in {} ms", revisions.size(), System.currentTimeMillis() - start);
+    }
+
     void setGitLabAPI(GitLabAPI gitLabAPI) {
         this.gitLabAPIV4 = gitLabAPI;
     }
 
+    void setHttpTransport(GitLabHttpTransport httpTransport) {
+        this.httpTransport = httpTransport;
+    }
+
+    void setUsernameCache(PersistentValueCache usernameCache) {
+        this.usernameCache = usernameCache;
+    }
+
+    void setDiffCache(DiffCache diffCache) {
+        this.diffCache = diffCache;
+    }
+
     void setGitLabAPIExt(GitLabAPIMergeRequestDiscussionExt gitLabAPIExt) {
         this.gitLabAPIExt = gitLabAPIExt;
     }
@@ -84,25 +152,55 @@ public class GitLabApiV4Wrapper implements IGitLabApiWrapper {
             throw new IllegalStateException("Unable to find project ID null. Set the property sonar.gitlab.project_id");
         }
 
-        try {
-            GitLabProject project = gitLabAPIV4.getGitLabAPIProjects().getProject(config.projectId());
+        // Project resolved by a previous analysis
+        String cacheKey = config.url() + "\n" + config.projectId();
+        String cachedId = projectIdCache != null ? projectIdCache.get(cacheKey) : null;
+        if (cachedId != null) {
+            GitLabProject project = findProject(cachedId);
             if (project != null) {
                 return project;
             }
-        } catch (IOException e) {
-            LOG.trace("Not found project with id", e);
+            projectIdCache.remove(cacheKey);
         }
 
-        Paged<GitLabProject> paged = gitLabAPIV4.getGitLabAPIProjects().getProjects(null, null, null, null, null, null);
-        if (paged == null) {
-            throw new IllegalStateException("Unable to find project ID " + config.projectId() + ". Either the project ID is incorrect or you don't have access to this project. Verify the configurations sonar.gitlab.project_id or sonar.gitlab.user_token");
+        GitLabProject project = findProject(config.projectId());
+        if (project != null) {
+            return project;
+        }
+
+        project = resolveProject();
+        if (projectIdCache != null) {
+            projectIdCache.put(cacheKey, String.valueOf(project.getId()));
         }
-        List<GitLabProject> projects = new ArrayList<>();
-        do {
-            if (paged.getResults() != null) {
-                projects.addAll(paged.getResults().stream().filter(this::isMatchingProject).collect(Collectors.toList()));
+        return project;
+    }
+
+    @CheckForNull
+    private GitLabProject findProject(String projectId) {
+        try {
+            return gitLabAPIV4.getGitLabAPIProjects().getProject(projectId);
+        } catch (IOException e) {
+            LOG.trace("Not found project with id " + projectId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Project ID is an url or a name, get the project by its path or search it by name instead of listing all projects
+     */
+    private GitLabProject resolveProject() throws IOException {
+        String path = toPathWithNamespace(config.projectId());
+        if (path != null) {
+            GitLabProject project = findProject(path);
+            if (project != null) {
+                return project;
             }
-        } while ((paged = paged.nextPage()) != null);
+        }
+
+        String name = path != null ? path : config.projectId();
+        String tailUrl = "/projects" + new Query().append("search", name.substring(name.lastIndexOf('/') + 1).trim()).build();
+        List<GitLabProject> projects = (httpTransport != null ? httpTransport.getAll(Paginations.withKeyset(tailUrl), GitLabProject[].class) : new GitLabApiTransport(gitLabAPIV4).getAll(tailUrl, GitLabProject[].class))
+                .stream().filter(this::isMatchingProject).collect(Collectors.toList());
 
         if (projects.isEmpty()) {
             throw new IllegalStateException("Unable to find project ID " + config.projectId() + ". Either the project ID is incorrect or you don't have access to this project. Verify the configurations sonar.gitlab.project_id or sonar.gitlab.user_token");
@@ -113,25 +211,49 @@ public class GitLabApiV4Wrapper implements IGitLabApiWrapper {
         return projects.get(0);
     }
 
+    /**
+     * Path with namespace of an http, ssh or web url of a project, null if the project ID is not an url
+     */
+    @CheckForNull
+    static String toPathWithNamespace(String projectId) {
+        String path;
+        int scheme = projectId.indexOf("://");
+        if (scheme > 0) {
+            int slash = projectId.indexOf('/', scheme + 3);
+            if (slash < 0) {
+                return null;
+            }
+            path = projectId.substring(slash + 1);
+        } else if (projectId.matches("[^@/\\s]+@[^:/\\s]+:.+")) {
+            path = projectId.substring(projectId.indexOf(':') + 1);
+        } else {
+            return null;
+        }
+        path = path.replaceAll("(\\.git)?/*$", "");
+        return path.isEmpty() ? null : path;
+    }
+
     void setGitLabProject(GitLabProject gitLabProject) {
         this.gitLabProject = gitLabProject;
     }
 
-    Map<String, List<GitLabCommitComments>> getCommitCommentsPerRevision(List<String> revisions) throws IOException {
-        Map<String, List<GitLabCommitComments>> result = new HashMap<>();
-        for (String revision : revisions) {
-            Paged<GitLabCommitComments> paged = gitLabAPIV4.getGitLabAPICommits().getCommitComments(gitLabProject.getId(), revision, null);
+    private List<GitLabCommitComments> getCommitComments(String revision) throws IOException {
+        long start = System.currentTimeMillis();
 
-            List<GitLabCommitComments> gitLabCommitCommentss = new ArrayList<>();
+        List<GitLabCommitComments> gitLabCommitCommentss = new ArrayList<>();
+        if (httpTransport != null) {
+            gitLabCommitCommentss.addAll(httpTransport.getAll(String.format("/projects/%d/repository/commits/%s/comments", gitLabProject.getId(), revision), GitLabCommitComments[].class));
+        } else {
+            Paged<GitLabCommitComments> paged = gitLabAPIV4.getGitLabAPICommits().getCommitComments(gitLabProject.getId(), revision, Paginations.maxPerPage());
             do {
                 if (paged.getResults() != null) {
                     gitLabCommitCommentss.addAll(paged.getResults());
                 }
             } while ((paged = paged.nextPage()) != null);
-
-            result.put(revision, gitLabCommitCommentss);
         }
-        return result;
+
+        LOG.debug("Loaded {} commit comment(s) for revision {} in {} ms", gitLabCommitCommentss.size(), revision, System.currentTimeMillis() - start);
+        return gitLabCommitCommentss;
     }
 
     @Override
@@ -151,25 +273,36 @@ public class GitLabApiV4Wrapper implements IGitLabApiWrapper {
                 .collect(Collectors.toSet());
     }
 
-    private Map<String, Map<String, Set<Line>>> getPatchPositionsToLineMapping(List<String> revisions) throws IOException {
-        Map<String, Map<String, Set<Line>>> result = new HashMap<>();
+    private Map<String, PatchLines> getPatchPositions(String revision) throws IOException {
+        long start = System.currentTimeMillis();
 
-        for (String revision : revisions) {
-            Paged<GitLabCommitDiff> paged = gitLabAPIV4.getGitLabAPICommits().getCommitDiffs(gitLabProject.getId(), revision, null);
-            List<GitLabCommitDiff> commitDiffs = new ArrayList<>();
+        Map<String, PatchLines> cached = diffCache != null ? diffCache.get(gitLabProject.getId(), revision) : null;
+        if (cached != null) {
+            LOG.debug("Loaded {} diff(s) for revision {} from cache in {} ms", cached.size(), revision, System.currentTimeMillis() - start);
+            return cached;
+        }
+
+        List<GitLabCommitDiff> commitDiffs = new ArrayList<>();
+        if (httpTransport != null) {
+            commitDiffs.addAll(httpTransport.getAll(String.format("/projects/%d/repository/commits/%s/diff", gitLabProject.getId(), revision), GitLabCommitDiff[].class));
+        } else {
+            Paged<GitLabCommitDiff> paged = gitLabAPIV4.getGitLabAPICommits().getCommitDiffs(gitLabProject.getId(), revision, Paginations.maxPerPage());
             do {
                 if (paged.getResults() != null) {
                     commitDiffs.addAll(paged.getResults());
                 }
             } while ((paged = paged.nextPage()) != null);
-
-            result.put(revision, commitDiffs
-                    .stream()
-                    .collect(Collectors.toMap(GitLabCommitDiff::getNewPath, d -> PatchUtils.getPositionsFromPatch(d.getDiff()))));
         }
 
-        LOG.debug("getPatchPositionsToLineMapping {}", result);
+        Map<String, PatchLines> result = commitDiffs
+                .stream()
+                .collect(Collectors.toMap(GitLabCommitDiff::getNewPath, d -> PatchUtils.getPatchLines(d.getDiff())));
+
+        if (diffCache != null) {
+            diffCache.put(gitLabProject.getId(), revision, result);
+        }
 
+        LOG.debug("Loaded {} diff(s) for revision {} in {} ms", commitDiffs.size(), revision, System.currentTimeMillis() - start);
         return result;
     }
 
@@ -178,25 +311,67 @@ public class GitLabApiV4Wrapper implements IGitLabApiWrapper {
      */
     @Override
     public String getUsernameForRevision(String revision) {
+        Optional<String> username = usernamePerRevision.get(revision);
+        if (username == null) {
+            username = Optional.ofNullable(loadUsernameForRevision(revision));
+            usernamePerRevision.put(revision, username);
+        }
+        return username.orElse(null);
+    }
+
+    @CheckForNull
+    private String loadUsernameForRevision(String revision) {
         try {
             GitLabCommit commit = gitLabAPIV4.getGitLabAPICommits().getCommit(gitLabProject.getId(), revision);
+            String email = commit.getAuthorEmail();
+            if (email == null) {
+                return null;
+            }
+
+            // Same author for most commits of a run
+            Optional<String> username = usernamePerEmail.get(email);
+            if (username == null) {
+                username = Optional.ofNullable(getUsernameForEmail(email));
+                usernamePerEmail.put(email, username);
+            }
+            return username.orElse(null);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to create retrive author for commit " + revision, e);
+        }
+    }
 
-            Paged<GitLabUser> paged = gitLabAPIV4.getGitLabAPIUsers().getUsers(commit.getAuthorEmail(), null);
-            List<GitLabUser> users = new ArrayList<>();
+    @CheckForNull
+    private String getUsernameForEmail(String email) throws IOException {
+        String cacheKey = config.url() + "\n" + email;
+        String cached = usernameCache != null ? usernameCache.get(cacheKey) : null;
+        if (cached != null) {
+            return cached.isEmpty() ? null : cached;
+        }
+
+        List<GitLabUser> users = new ArrayList<>();
+        if (httpTransport != null) {
+            users.addAll(httpTransport.getAll("/users" + new Query().append("search", email).build(), GitLabUser[].class));
+        } else {
+            Paged<GitLabUser> paged = gitLabAPIV4.getGitLabAPIUsers().getUsers(email, Paginations.maxPerPage());
             do {
                 if (paged.getResults() != null) {
                     users.addAll(paged.getResults());
                 }
             } while ((paged = paged.nextPage()) != null);
+        }
 
-            if (users.size() == 1) {
-                return users.get(0).getUsername();
-            }
-            return users.stream().filter(x -> commit.getAuthorEmail().equals(x.getEmail()))
+        String username;
+        if (users.size() == 1) {
+            username = users.get(0).getUsername();
+        } else {
+            username = users.stream().filter(x -> email.equals(x.getEmail()))
                     .map(GitLabUser::getUsername).findFirst().orElse(null);
-        } catch (IOException e) {
-            throw new IllegalStateException("Unable to create retrive author for commit " + revision, e);
         }
+        if (usernameCache != null) {
+            // Empty when no user matches, not searched again until it expires
+            usernameCache.put(cacheKey, username != null ? username : "");
+        }
+        return username;
     }
 
     private boolean isMatchingProject(GitLabProject project) {
@@ -228,41 +403,17 @@ public class GitLabApiV4Wrapper implements IGitLabApiWrapper {
 
     @Override
     public boolean hasFile(String path) {
-        LOG.debug("hasFile {}", path);
-        for (String revision : config.commitSHA()) {
-            if (patchPositionByFile.get(revision).containsKey(path)) {
-                LOG.debug("hasFile found {}", revision);
-                return true;
-            }
-        }
-        LOG.debug("hasFile notfound");
-        return false;
+        boolean found = patchLineIndex.hasFile(path);
+        LOG.debug("hasFile {} {}", path, found);
+        return found;
     }
 
     @Override
     public String getRevisionForLine(File file, String path, int lineNumber) {
-        String value = null;
-        try {
-            List<String> ss = Files.readAllLines(file.toPath());
-            int l = lineNumber > 0 ? lineNumber - 1 : 0;
-            value = ss.size() >= lineNumber ? ss.get(l) : null;
-        } catch (IOException e) {
-            LOG.trace("Not read all line for file {}", file, e);
-        }
-        Line line = new Line(lineNumber, value);
-
-        LOG.debug("getRevisionForLine {} {}", path, line);
-
-        for (String revision : config.commitSHA()) {
-            LOG.debug("getRevisionForLine " + patchPositionByFile.get(revision));
-            if (patchPositionByFile.get(revision).entrySet().stream().anyMatch(v ->
-                    v.getKey().equals(path) && v.getValue().contains(line))) {
-                LOG.debug("getRevisionForLine found {}");
-                return revision;
-            }
-        }
-        LOG.debug("getRevisionForLine notfound");
-        return null;
+        String value = sourceLineCache.getLine(file, lineNumber);
+        String revision = patchLineIndex.getRevision(path, lineNumber, value);
+        LOG.debug("getRevisionForLine {} {} {}", path, lineNumber, revision != null ? revision : "notfound");
+        return revision;
     }
 
     @Override
@@ -276,6 +427,9 @@ public class GitLabApiV4Wrapper implements IGitLabApiWrapper {
         try {
             if (config.isMergeRequestDiscussionEnabled() && config.mergeRequestIid() != -1) {
                 createReviewDiscussion(fullPath, line, body);
+            } else if (httpTransport != null) {
+                Query query = new Query().append("note", body).append("path", fullPath).append("line", String.valueOf(line)).append("line_type", "new");
+                httpTransport.execute("POST", String.format("/projects/%d/repository/commits/%s/comments%s", gitLabProject.getId(), revision != null ? revision : getFirstCommitSHA(), query.build()), GitLabCommitComments.class);
             } else {
                 gitLabAPIV4.getGitLabAPICommits().postCommitComments(gitLabProject.getId(), revision != null ? revision : getFirstCommitSHA(), body, fullPath, line, "new");
             }
@@ -285,28 +439,45 @@ public class GitLabApiV4Wrapper implements IGitLabApiWrapper {
     }
 
     private void createReviewDiscussion(String fullPath, Integer lineNumber, String body) throws IOException {
-        Integer projectId = gitLabProject.getId();
-        int mergeRequestIid = config.mergeRequestIid();
-
-        checkArgument(mergeRequestIid != -1, "The merge request iid must be provided.");
-
-        Paged<GitlabMergeRequestDiff> mergeRequestDiffs = gitLabAPIV4
-                .getGitLabAPIMergeRequestDiff().getMergeRequestDiff(projectId, mergeRequestIid);
+        MergeRequestContext context = getMergeRequestContext();
+        Integer projectId = context.getProjectId();
+        int mergeRequestIid = context.getMergeRequestIid();
 
-        checkArgument(mergeRequestDiffs.getResults() != null && !mergeRequestDiffs.getResults().isEmpty(), "There are no merge request diffs.");
+        GitlabMergeRequestDiff mergeRequestDiff = context.getMergeRequestDiff();
 
-        GitlabMergeRequestDiff mergeRequestDiff = mergeRequestDiffs.getResults().get(0);
+        GitLabAPIMergeRequestDiscussionExt discussionExt = getGitLabAPIExt();
 
-        gitLabAPIExt = gitLabAPIExt == null ? new GitLabAPIMergeRequestDiscussionExt(gitLabAPIV4): gitLabAPIExt;
-
-        if(gitLabAPIExt.hasDiscussion(projectId, mergeRequestIid, fullPath, lineNumber, body, mergeRequestDiff.getBaseCommitSha(), mergeRequestDiff.getHeadCommitSha())) {
+        if(discussionExt.hasDiscussion(projectId, mergeRequestIid, fullPath, lineNumber, body, mergeRequestDiff.getBaseCommitSha(), mergeRequestDiff.getHeadCommitSha())) {
         	LOG.debug("discussion already exist");
         	return;
         }
         LOG.debug("creating new discussion.");
-        GitlabDiscussion discussion = createMergeRequestDiscussion(mergeRequestDiff, fullPath, lineNumber, body);
+        if (httpTransport != null) {
+            discussionExt.createDiscussion(projectId, mergeRequestIid, fullPath, lineNumber, body, mergeRequestDiff.getBaseCommitSha(), mergeRequestDiff.getStartCommitSha(), mergeRequestDiff.getHeadCommitSha());
+        } else {
+            GitlabDiscussion discussion = createMergeRequestDiscussion(mergeRequestDiff, fullPath, lineNumber, body);
 
-        gitLabAPIV4.getGitLabAPIMergeRequestDiscussion().createDiscussion(projectId, mergeRequestIid, discussion);
+            gitLabAPIV4.getGitLabAPIMergeRequestDiscussion().createDiscussion(projectId, mergeRequestIid, discussion);
+        }
+        discussionExt.addDiscussion(projectId, mergeRequestIid, fullPath, lineNumber, body, mergeRequestDiff.getBaseCommitSha(), mergeRequestDiff.getHeadCommitSha());
+    }
+
+    private synchronized MergeRequestContext getMergeRequestContext() {
+        if (mergeRequestContext == null) {
+            int mergeRequestIid = config.mergeRequestIid();
+
+            checkArgument(mergeRequestIid != -1, "The merge request iid must be provided.");
+
+            mergeRequestContext = new MergeRequestContext(gitLabAPIV4, gitLabProject.getId(), mergeRequestIid);
+        }
+        return mergeRequestContext;
+    }
+
+    private synchronized GitLabAPIMergeRequestDiscussionExt getGitLabAPIExt() {
+        if (gitLabAPIExt == null) {
+            gitLabAPIExt = httpTransport != null ? new GitLabAPIMergeRequestDiscussionExt(gitLabAPIV4, httpTransport) : new GitLabAPIMergeRequestDiscussionExt(gitLabAPIV4);
+        }
+        return gitLabAPIExt;
     }
 
     private GitlabDiscussion createMergeRequestDiscussion(GitlabMergeRequestDiff mergeRequestDiff, String fullPath, Integer line, String body) {
@@ -325,8 +496,58 @@ public class GitLabApiV4Wrapper implements IGitLabApiWrapper {
         return discussion;
     }
 
+    @Override
+    public List<ReviewComment> getReviewComments() {
+        List<ReviewComment> reviewComments = new ArrayList<>();
+        if (config.isMergeRequestDiscussionEnabled() && config.mergeRequestIid() != -1) {
+            MergeRequestContext context = getMergeRequestContext();
+            try {
+                for (GitlabDiscussionStatus discussion : getGitLabAPIExt().getDiscussions(context.getProjectId(), context.getMergeRequestIid())) {
+                    GitlabNote note = discussion.getNotes() != null && !discussion.getNotes().isEmpty() ? discussion.getNotes().get(0) : null;
+                    if (note != null && note.getPosition() != null && note.getBody() != null) {
+                        reviewComments.add(new ReviewComment(discussion.getId(), note.getId(), note.getPosition().getNewPath(), note.getPosition().getNewLine(), note.getBody(), note.isResolved()));
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to get merge request discussions", e);
+            }
+        } else {
+            commitCommentPerRevision.values().stream()
+                    .flatMap(List::stream)
+                    .filter(c -> c != null && c.getPath() != null && c.getNote() != null)
+                    .forEach(c -> reviewComments.add(new ReviewComment(null, null, c.getPath(), c.getLine(), c.getNote(), false)));
+        }
+        return reviewComments;
+    }
+
+    @Override
+    public void updateReviewComment(ReviewComment reviewComment, String body) {
+        checkArgument(reviewComment.isEditable(), "Only merge request discussions can be updated.");
+        MergeRequestContext context = getMergeRequestContext();
+        try {
+            getGitLabAPIExt().updateNote(context.getProjectId(), context.getMergeRequestIid(), reviewComment.getDiscussionId(), reviewComment.getNoteId(), body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to update review comment in file " + reviewComment.getPath() + " at line " + reviewComment.getLine(), e);
+        }
+    }
+
+    @Override
+    public void resolveReviewComment(ReviewComment reviewComment, boolean resolved) {
+        checkArgument(reviewComment.isEditable(), "Only merge request discussions can be resolved.");
+        MergeRequestContext context = getMergeRequestContext();
+        try {
+            getGitLabAPIExt().resolveDiscussion(context.getProjectId(), context.getMergeRequestIid(), reviewComment.getDiscussionId(), resolved);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to " + (resolved ? "resolve" : "unresolve") + " review comment in file " + reviewComment.getPath() + " at line " + reviewComment.getLine(), e);
+        }
+    }
+
     @Override
     public void addGlobalComment(String comment) {
+        if (config.globalCommentUpsert()) {
+            upsertGlobalComment(CommentMarkers.mark(comment, config.projectKey(), CommentMarkers.GLOBAL_FINGERPRINT));
+            return;
+        }
         try {
             gitLabAPIV4.getGitLabAPICommits().postCommitComments(gitLabProject.getId(), getFirstCommitSHA(), comment, null, null, null);
         } catch (IOException e) {
@@ -334,6 +555,52 @@ public class GitLabApiV4Wrapper implements IGitLabApiWrapper {
         }
     }
 
+    /**
+     * Edit the global comment of the previous analysis when there is one. Commit comments can not be edited, so on a commit the comment
+     * is only posted again when it changed.
+     */
+    private void upsertGlobalComment(String body) {
+        try {
+            if (config.isMergeRequestDiscussionEnabled() && config.mergeRequestIid() != -1) {
+                upsertMergeRequestGlobalComment(body);
+            } else if (hasSameGlobalCommitComment(body)) {
+                LOG.debug("Global comment is unchanged");
+            } else {
+                gitLabAPIV4.getGitLabAPICommits().postCommitComments(gitLabProject.getId(), getFirstCommitSHA(), body, null, null, null);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to comment the commit", e);
+        }
+    }
+
+    private void upsertMergeRequestGlobalComment(String body) throws IOException {
+        MergeRequestContext context = getMergeRequestContext();
+        for (GitlabDiscussionStatus discussion : getGitLabAPIExt().getDiscussions(context.getProjectId(), context.getMergeRequestIid())) {
+            for (GitlabNote note : discussion.getNotes() != null ? discussion.getNotes() : Collections.<GitlabNote>emptyList()) {
+                if (note.getPosition() == null && CommentMarkers.GLOBAL_FINGERPRINT.equals(CommentMarkers.getFingerprint(note.getBody(), config.projectKey()))) {
+                    if (body.equals(note.getBody())) {
+                        LOG.debug("Global comment is unchanged");
+                    } else {
+                        getGitLabAPIExt().updateNote(context.getProjectId(), context.getMergeRequestIid(), discussion.getId(), note.getId(), body);
+                    }
+                    return;
+                }
+            }
+        }
+        GitlabDiscussion discussion = new GitlabDiscussion();
+        discussion.setBody(body);
+        try {
+            gitLabAPIV4.getGitLabAPIMergeRequestDiscussion().createDiscussion(context.getProjectId(), context.getMergeRequestIid(), discussion);
+        } finally {
+            getGitLabAPIExt().invalidate(context.getProjectId(), context.getMergeRequestIid());
+        }
+    }
+
+    private boolean hasSameGlobalCommitComment(String body) {
+        List<GitLabCommitComments> comments = commitCommentPerRevision != null ? commitCommentPerRevision.get(getFirstCommitSHA()) : null;
+        return comments != null && comments.stream().anyMatch(c -> c != null && c.getPath() == null && body.equals(c.getNote()));
+    }
+
     private String getFirstCommitSHA() {
         return config.commitSHA() != null && !config.commitSHA().isEmpty() ? config.commitSHA().get(0) : null;
     }
@@ -68,6 +68,18 @@ public class GitLabPlugin implements Plugin {
     public static final String SONAR_PULL_REQUEST_KEY = "sonar.pullrequest.key";
     public static final String GITLAB_FAIL_ON_QUALITY_GATE = "sonar.gitlab.fail_on_qualitygate";
     public static final String GITLAB_STATUS_NAME = "sonar.gitlab.status_name";
+    public static final String GITLAB_SONAR_QUERY_PARALLELISM = "sonar.gitlab.sonar_query_parallelism";
+    public static final String GITLAB_PREFETCH_PARALLELISM = "sonar.gitlab.prefetch_parallelism";
+    public static final String GITLAB_INLINE_COMMENT_PARALLELISM = "sonar.gitlab.inline_comment_parallelism";
+    public static final String GITLAB_INLINE_RECONCILIATION = "sonar.gitlab.inline_reconciliation";
+    public static final String GITLAB_GLOBAL_COMMENT_UPSERT = "sonar.gitlab.global_comment_upsert";
+    public static final String GITLAB_PERSISTENT_CACHE = "sonar.gitlab.persistent_cache";
+    public static final String GITLAB_CACHE_DIR = "sonar.gitlab.cache_dir";
+    public static final String GITLAB_CACHE_MAX_SIZE = "sonar.gitlab.cache_max_size";
+    public static final String GITLAB_RULE_CACHE_TTL = "sonar.gitlab.rule_cache_ttl";
+    public static final String GITLAB_QUERY_TIMEOUT = "sonar.gitlab.query_timeout";
+    public static final String GITLAB_HTTP_CLIENT = "sonar.gitlab.http_client";
+    public static final String GITLAB_USER_CACHE_TTL = "sonar.gitlab.user_cache_ttl";
 
     public static final String CATEGORY = "gitlab";
     public static final String SUBCATEGORY = "reporting";
@@ -137,9 +149,9 @@ public class GitLabPlugin implements Plugin {
                                 .type(PropertyType.BOOLEAN).defaultValue(String.valueOf(false)).index(26).build(),
                         PropertyDefinition.builder(GITLAB_JSON_MODE).name("Generate json report").description("Create a json report in root for GitLab EE").category(CATEGORY).subCategory(SUBCATEGORY)
                                 .type(PropertyType.SINGLE_SELECT_LIST).options(JsonMode.NONE.name(), JsonMode.CODECLIMATE.name(), JsonMode.SAST.name()).defaultValue(JsonMode.NONE.name()).onlyOnQualifiers(Qualifiers.PROJECT).index(27).build(),
-                        PropertyDefinition.builder(GITLAB_QUERY_MAX_RETRY).name("Query max retry").description("Max retry for wait finish analyse for publish mode").category(CATEGORY).subCategory(SUBCATEGORY)
+                        PropertyDefinition.builder(GITLAB_QUERY_MAX_RETRY).name("Query max retry").description("Only sets the default query timeout, query max retry times query wait, the number of queries is not limited").category(CATEGORY).subCategory(SUBCATEGORY)
                                 .type(PropertyType.INTEGER).defaultValue(String.valueOf(50)).index(28).build(),
-                        PropertyDefinition.builder(GITLAB_QUERY_WAIT).name("Query waiting between retry").description("Max retry for wait finish analyse for publish mode (millisecond)").category(CATEGORY).subCategory(SUBCATEGORY)
+                        PropertyDefinition.builder(GITLAB_QUERY_WAIT).name("Query waiting between retry").description("Max wait between two queries while waiting for the analysis to finish in publish mode (millisecond)").category(CATEGORY).subCategory(SUBCATEGORY)
                                 .type(PropertyType.INTEGER).defaultValue(String.valueOf(1000)).index(29).build(),
                         PropertyDefinition.builder(GITLAB_QUALITY_GATE_FAIL_MODE).name("Quality Gate fail mode").description("Quality gate fail mode: error, warn or none")
                                 .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.SINGLE_SELECT_LIST)
@@ -173,13 +185,59 @@ public class GitLabPlugin implements Plugin {
                         PropertyDefinition.builder(GITLAB_STATUS_NAME).name("GitLab status name").description("The name of the commit status created by the plugin.")
                                 .category(CATEGORY).subCategory(SUBCATEGORY)
                                 .defaultValue("sonarqube")
-                                .index(37).hidden().build()
+                                .index(37).hidden().build(),
+                        PropertyDefinition.builder(GITLAB_SONAR_QUERY_PARALLELISM).name("SonarQube query parallelism").description("Max concurrent SonarQube queries when loading issue pages (1 for sequential)")
+                                .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.INTEGER)
+                                .defaultValue(String.valueOf(1))
+                                .index(38).build(),
+                        PropertyDefinition.builder(GITLAB_PREFETCH_PARALLELISM).name("GitLab prefetch parallelism").description("Max concurrent GitLab queries when loading commit comments and diffs (1 for sequential)")
+                                .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.INTEGER)
+                                .defaultValue(String.valueOf(1))
+                                .index(39).build(),
+                        PropertyDefinition.builder(GITLAB_INLINE_COMMENT_PARALLELISM).name("Inline comment parallelism").description("Max concurrent GitLab queries when posting inline comments, comments of a file are posted in line order (1 for sequential)")
+                                .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.INTEGER)
+                                .defaultValue(String.valueOf(1))
+                                .index(40).build(),
+                        PropertyDefinition.builder(GITLAB_INLINE_RECONCILIATION).name("Inline comment reconciliation").description("Mark inline comments with a hidden issue fingerprint, only create new comments, update changed ones, resolve the ones of fixed issues and unresolve the ones of issues found again")
+                                .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.BOOLEAN)
+                                .defaultValue(String.valueOf(false))
+                                .index(41).build(),
+                        PropertyDefinition.builder(GITLAB_GLOBAL_COMMENT_UPSERT).name("Global comment upsert").description("Edit the global comment of the previous analysis instead of posting a new one, on a merge request the global comment becomes a merge request note")
+                                .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.BOOLEAN)
+                                .defaultValue(String.valueOf(false))
+                                .index(42).build(),
+                        PropertyDefinition.builder(GITLAB_PERSISTENT_CACHE).name("Persistent cache").description("Keep immutable GitLab data, like commit diffs, on disk for the next analyses")
+                                .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.BOOLEAN)
+                                .defaultValue(String.valueOf(false))
+                                .index(43).build(),
+                        PropertyDefinition.builder(GITLAB_CACHE_DIR).name("Persistent cache directory").description("Directory of the persistent cache, set a directory kept between pipelines to share it (default gitlab-cache in the scanner user home, ~/.sonar)")
+                                .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.STRING)
+                                .index(44).build(),
+                        PropertyDefinition.builder(GITLAB_CACHE_MAX_SIZE).name("Persistent cache max size").description("Max size in MB of the persistent cache, least recently used entries are deleted first")
+                                .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.INTEGER)
+                                .defaultValue(String.valueOf(256))
+                                .index(45).build(),
+                        PropertyDefinition.builder(GITLAB_RULE_CACHE_TTL).name("Rule cache time to live").description("Hours rules are kept in the persistent cache before being loaded again")
+                                .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.INTEGER)
+                                .defaultValue(String.valueOf(24))
+                                .index(46).build(),
+                        PropertyDefinition.builder(GITLAB_QUERY_TIMEOUT).name("Query timeout").description("Max time to wait for the analysis to finish in publish mode (millisecond), default sonar.gitlab.query_max_retry times sonar.gitlab.query_wait")
+                                .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.INTEGER)
+                                .index(47).build(),
+                        PropertyDefinition.builder(GITLAB_HTTP_CLIENT).name("HTTP client").description("Call GitLab for diffs, comments and discussions with a pooled keep-alive HTTP client negotiating HTTP/2 instead of a new connection per request")
+                                .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.BOOLEAN)
+                                .defaultValue(String.valueOf(false))
+                                .index(48).build(),
+                        PropertyDefinition.builder(GITLAB_USER_CACHE_TTL).name("User cache time to live").description("Hours usernames of commit author emails are kept in the persistent cache before being searched again")
+                                .category(CATEGORY).subCategory(SUBCATEGORY).type(PropertyType.INTEGER)
+                                .defaultValue(String.valueOf(24))
+                                .index(49).build()
 
                 );
     }
 
     @Override
     public void define(Context context) {
-        context.addExtensions(ReporterBuilder.class, GitLabPluginConfiguration.class, CommitFacade.class, SonarFacade.class, MarkDownUtils.class, CommitPublishPostJob.class).addExtensions(definitions());
+        context.addExtensions(ReporterBuilder.class, GitLabPluginConfiguration.class, CommitFacade.class, SonarFacade.class, MarkDownUtils.class, FreemarkerTemplates.class, CommitPublishPostJob.class).addExtensions(definitions());
     }
 }
@@ -27,6 +27,7 @@ import org.sonar.api.utils.System2;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 
+import java.io.File;
 import java.net.*;
 import java.util.Arrays;
 import java.util.List;
@@ -200,6 +201,14 @@ public class GitLabPluginConfiguration {
         return configuration.getInt(GitLabPlugin.GITLAB_QUERY_WAIT).orElse(1000);
     }
 
+    public long queryTimeout() {
+        return configuration.getLong(GitLabPlugin.GITLAB_QUERY_TIMEOUT).orElse((long) queryMaxRetry() * queryWait());
+    }
+
+    public boolean httpClient() {
+        return configuration.getBoolean(GitLabPlugin.GITLAB_HTTP_CLIENT).orElse(false);
+    }
+
     public Severity issueFilter() {
         String name = configuration.get(GitLabPlugin.GITLAB_ISSUE_FILTER).orElse(null);
         if (name == null) {
@@ -285,4 +294,56 @@ public class GitLabPluginConfiguration {
         return configuration.get(GitLabPlugin.GITLAB_STATUS_NAME).orElse("sonarqube");
     }
 
+    public int sonarQueryParallelism() {
+        return configuration.getInt(GitLabPlugin.GITLAB_SONAR_QUERY_PARALLELISM).orElse(1);
+    }
+
+    public int prefetchParallelism() {
+        return configuration.getInt(GitLabPlugin.GITLAB_PREFETCH_PARALLELISM).orElse(1);
+    }
+
+    public int inlineCommentParallelism() {
+        return configuration.getInt(GitLabPlugin.GITLAB_INLINE_COMMENT_PARALLELISM).orElse(1);
+    }
+
+    public boolean inlineReconciliation() {
+        return configuration.getBoolean(GitLabPlugin.GITLAB_INLINE_RECONCILIATION).orElse(false);
+    }
+
+    /**
+     * Sonar project key of the analysis, scopes the markers of the comments posted by the plugin
+     */
+    @CheckForNull
+    public String projectKey() {
+        return configuration.get(CoreProperties.PROJECT_KEY_PROPERTY).orElse(null);
+    }
+
+    public boolean globalCommentUpsert() {
+        return configuration.getBoolean(GitLabPlugin.GITLAB_GLOBAL_COMMENT_UPSERT).orElse(false);
+    }
+
+    /**
+     * Directory of the persistent cache, null when the cache is disabled. Not in the scanner working directory, it is cleaned on each analysis
+     */
+    @CheckForNull
+    public File persistentCacheDir() {
+        if (!configuration.getBoolean(GitLabPlugin.GITLAB_PERSISTENT_CACHE).orElse(false)) {
+            return null;
+        }
+        return configuration.get(GitLabPlugin.GITLAB_CACHE_DIR).map(File::new)
+                .orElseGet(() -> new File(configuration.get("sonar.userHome").orElseGet(() -> new File(System.getProperty("user.home"), ".sonar").getPath()), "gitlab-cache"));
+    }
+
+    public long cacheMaxSize() {
+        return configuration.getLong(GitLabPlugin.GITLAB_CACHE_MAX_SIZE).orElse(256L) * 1024 * 1024;
+    }
+
+    public long ruleCacheTtl() {
+        return configuration.getLong(GitLabPlugin.GITLAB_RULE_CACHE_TTL).orElse(24L) * 60 * 60 * 1000;
+    }
+
+    public long userCacheTtl() {
+        return configuration.getLong(GitLabPlugin.GITLAB_USER_CACHE_TTL).orElse(24L) * 60 * 60 * 1000;
+    }
+
 }
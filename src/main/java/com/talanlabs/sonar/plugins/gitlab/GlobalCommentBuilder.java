@@ -31,8 +31,9 @@ public class GlobalCommentBuilder extends AbstractCommentBuilder {
     private final QualityGate qualityGate;
     private final Reporter reporter;
 
-    public GlobalCommentBuilder(GitLabPluginConfiguration gitLabPluginConfiguration, String author, QualityGate qualityGate, Reporter reporter, MarkDownUtils markDownUtils) {
-        super(gitLabPluginConfiguration, gitLabPluginConfiguration.commitSHA().get(0), reporter.getReportIssues(), markDownUtils, "global", gitLabPluginConfiguration.globalTemplate());
+    public GlobalCommentBuilder(GitLabPluginConfiguration gitLabPluginConfiguration, String author, QualityGate qualityGate, Reporter reporter, MarkDownUtils markDownUtils,
+                                FreemarkerTemplates freemarkerTemplates) {
+        super(gitLabPluginConfiguration, gitLabPluginConfiguration.commitSHA().get(0), reporter.getReportIssues(), markDownUtils, freemarkerTemplates, "global", gitLabPluginConfiguration.globalTemplate());
 
         this.author = author;
         this.qualityGate = qualityGate;
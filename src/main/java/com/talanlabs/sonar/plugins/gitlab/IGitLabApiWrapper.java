@@ -17,7 +17,7 @@
 package com.talanlabs.sonar.plugins.gitlab;
 
 import java.io.File;
-import java.util.Objects;
+import java.util.List;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
@@ -40,42 +40,72 @@ public interface IGitLabApiWrapper {
 
     void createOrUpdateReviewComment(String revision, String fullPath, Integer line, String body);
 
+    /**
+     * Inline comments already posted on the commits or on the merge request discussions
+     */
+    List<ReviewComment> getReviewComments();
+
+    void updateReviewComment(ReviewComment reviewComment, String body);
+
+    void resolveReviewComment(ReviewComment reviewComment, boolean resolved);
+
     void addGlobalComment(String comment);
 
-    class Line {
+    class ReviewComment {
+
+        private final String discussionId;
+
+        private final Integer noteId;
+
+        private final String path;
+
+        private final Integer line;
+
+        private final String body;
 
-        private final Integer number;
+        private final boolean resolved;
 
-        private final String content;
+        public ReviewComment(@Nullable String discussionId, @Nullable Integer noteId, String path, @Nullable Integer line, String body, boolean resolved) {
+            this.discussionId = discussionId;
+            this.noteId = noteId;
+            this.path = path;
+            this.line = line;
+            this.body = body;
+            this.resolved = resolved;
+        }
+
+        @CheckForNull
+        public String getDiscussionId() {
+            return discussionId;
+        }
+
+        @CheckForNull
+        public Integer getNoteId() {
+            return noteId;
+        }
+
+        public String getPath() {
+            return path;
+        }
 
-        Line(Integer number, String content) {
-            this.number = number;
-            this.content = content;
+        @CheckForNull
+        public Integer getLine() {
+            return line;
         }
 
-        @Override
-        public String toString() {
-            return "Line{" + "number=" + number +
-                    ", content='" + content + '\'' +
-                    '}';
+        public String getBody() {
+            return body;
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
-            }
-            Line line = (Line) o;
-            return Objects.equals(number, line.number) &&
-                    Objects.equals(content, line.content);
+        public boolean isResolved() {
+            return resolved;
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(number, content);
+        /**
+         * Only merge request discussion notes can be updated and resolved, commit comments can not
+         */
+        public boolean isEditable() {
+            return discussionId != null && noteId != null;
         }
     }
 }
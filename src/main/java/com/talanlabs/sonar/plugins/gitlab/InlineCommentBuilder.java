@@ -28,8 +28,8 @@ public class InlineCommentBuilder extends AbstractCommentBuilder {
     private final String author;
 
     public InlineCommentBuilder(GitLabPluginConfiguration gitLabPluginConfiguration, String revision, String author, Integer lineNumber, List<ReportIssue> reportIssues,
-                                MarkDownUtils markDownUtils) {
-        super(gitLabPluginConfiguration, revision, reportIssues, markDownUtils, "inline", gitLabPluginConfiguration.inlineTemplate());
+                                MarkDownUtils markDownUtils, FreemarkerTemplates freemarkerTemplates) {
+        super(gitLabPluginConfiguration, revision, reportIssues, markDownUtils, freemarkerTemplates, "inline", gitLabPluginConfiguration.inlineTemplate());
 
         this.lineNumber = lineNumber;
         this.author = author;
@@ -0,0 +1,120 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reconcile inline comments of this analysis with the comments posted by previous analyses.
+ * Comments are matched by the fingerprint of their hidden marker, only new comments are created, changed comments are updated,
+ * comments of fixed issues are resolved and comments of issues found again are unresolved. Commit comments can not be edited, so they are only created.
+ * Only comments marked with the Sonar project key of this analysis are reconciled.
+ */
+public class InlineCommentReconciler {
+
+    private static final Logger LOG = Loggers.get(InlineCommentReconciler.class);
+
+    private final CommitFacade commitFacade;
+    private final String projectKey;
+    private final List<InlineComment> inlineComments = new ArrayList<>();
+
+    public InlineCommentReconciler(CommitFacade commitFacade, @Nullable String projectKey) {
+        this.commitFacade = commitFacade;
+        this.projectKey = projectKey;
+    }
+
+    public void add(String revision, File file, Integer lineNumber, String body, String fingerprint) {
+        inlineComments.add(new InlineComment(revision, file, lineNumber, CommentMarkers.mark(body, projectKey, fingerprint), fingerprint));
+    }
+
+    /**
+     * Compute the delta with existing comments and schedule only the required create, update and resolve calls
+     */
+    public void reconcile(InlineCommentScheduler scheduler) {
+        Map<String, IGitLabApiWrapper.ReviewComment> existingByFingerprint = new LinkedHashMap<>();
+        for (IGitLabApiWrapper.ReviewComment reviewComment : commitFacade.getReviewComments()) {
+            String fingerprint = CommentMarkers.getFingerprint(reviewComment.getBody(), projectKey);
+            if (fingerprint != null) {
+                existingByFingerprint.putIfAbsent(fingerprint, reviewComment);
+            }
+        }
+
+        int created = 0;
+        int updated = 0;
+        int resolved = 0;
+        int unresolved = 0;
+        Set<String> fingerprints = new HashSet<>();
+        for (InlineComment inlineComment : inlineComments) {
+            if (!fingerprints.add(inlineComment.fingerprint)) {
+                continue;
+            }
+            IGitLabApiWrapper.ReviewComment existing = existingByFingerprint.get(inlineComment.fingerprint);
+            // Same queue key as the GitLab path of existing comments, so all calls for a file are ordered
+            String path = commitFacade.getPath(inlineComment.file);
+            if (existing == null) {
+                scheduler.schedule(path, () -> commitFacade.createOrUpdateReviewComment(inlineComment.revision, inlineComment.file, inlineComment.lineNumber, inlineComment.body));
+                created++;
+            } else if (existing.isEditable()) {
+                if (!inlineComment.body.equals(existing.getBody())) {
+                    scheduler.schedule(path, () -> commitFacade.updateReviewComment(existing, inlineComment.body));
+                    updated++;
+                }
+                if (existing.isResolved()) {
+                    scheduler.schedule(path, () -> commitFacade.resolveReviewComment(existing, false));
+                    unresolved++;
+                }
+            }
+        }
+        for (Map.Entry<String, IGitLabApiWrapper.ReviewComment> entry : existingByFingerprint.entrySet()) {
+            IGitLabApiWrapper.ReviewComment existing = entry.getValue();
+            if (!fingerprints.contains(entry.getKey()) && existing.isEditable() && !existing.isResolved()) {
+                scheduler.schedule(existing.getPath(), () -> commitFacade.resolveReviewComment(existing, true));
+                resolved++;
+            }
+        }
+        inlineComments.clear();
+
+        LOG.info("Inline comments to create {}, to update {}, to resolve {}, to unresolve {}, total {}", created, updated, resolved, unresolved, fingerprints.size());
+    }
+
+    private static class InlineComment {
+
+        private final String revision;
+        private final File file;
+        private final Integer lineNumber;
+        private final String body;
+        private final String fingerprint;
+
+        InlineComment(String revision, File file, Integer lineNumber, String body, String fingerprint) {
+            this.revision = revision;
+            this.file = file;
+            this.lineNumber = lineNumber;
+            this.body = body;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
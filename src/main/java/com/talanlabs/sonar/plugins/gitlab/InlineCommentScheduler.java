@@ -0,0 +1,143 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import com.talanlabs.sonar.plugins.gitlab.api.GitLabRateLimitException;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import javax.annotation.CheckForNull;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Post inline comments with at most parallelism requests at the same time.
+ * Comments of the same queue (a file) are posted one after the other in scheduling order.
+ * When GitLab answers 429 Too Many Requests, all workers pause and the request is retried after the delay given by GitLab, else with exponential backoff.
+ */
+public class InlineCommentScheduler {
+
+    private static final Logger LOG = Loggers.get(InlineCommentScheduler.class);
+
+    private static final int MAX_RETRIES = 5;
+    private static final long MAX_BACKOFF = 60_000L;
+    // HttpURLConnection and GitLab body formats of a 429 status through java-gitlab-api
+    private static final Pattern RATE_LIMITED = Pattern.compile("response code: 429\\b|\\b429 Too Many Requests");
+
+    private final int parallelism;
+    private final long initialBackoff;
+    private final Map<String, List<Runnable>> queues = new LinkedHashMap<>();
+    private final AtomicLong pausedUntil = new AtomicLong();
+
+    public InlineCommentScheduler(int parallelism) {
+        this(parallelism, 1000L);
+    }
+
+    InlineCommentScheduler(int parallelism, long initialBackoff) {
+        this.parallelism = parallelism;
+        this.initialBackoff = initialBackoff;
+    }
+
+    public void schedule(String queue, Runnable post) {
+        queues.computeIfAbsent(queue, k -> new ArrayList<>()).add(post);
+    }
+
+    /**
+     * Post all scheduled comments and wait for the end
+     */
+    public void run() {
+        List<ParallelUtils.Task<Void>> tasks = new ArrayList<>();
+        for (List<Runnable> posts : queues.values()) {
+            tasks.add(() -> {
+                for (Runnable post : posts) {
+                    post(post);
+                }
+                return null;
+            });
+        }
+        queues.clear();
+
+        try {
+            ParallelUtils.invokeAll("gitlab-inline", parallelism, tasks);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to post inline comments", e);
+        }
+    }
+
+    private void post(Runnable post) {
+        long backoff = initialBackoff;
+        for (int retry = 0; ; retry++) {
+            waitIfPaused();
+            try {
+                post.run();
+                return;
+            } catch (RuntimeException e) {
+                if (retry >= MAX_RETRIES || !isRateLimited(e)) {
+                    throw e;
+                }
+                Duration retryAfter = getRetryAfter(e);
+                long delay = retryAfter != null ? retryAfter.toMillis() : backoff;
+                LOG.info("GitLab rate limit reached, retry in {} ms", delay);
+                long until = System.currentTimeMillis() + delay;
+                pausedUntil.accumulateAndGet(until, Math::max);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF);
+            }
+        }
+    }
+
+    private void waitIfPaused() {
+        long delay = pausedUntil.get() - System.currentTimeMillis();
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for GitLab rate limit", e);
+            }
+        }
+    }
+
+    /**
+     * HttpClientTransport raises a {@link GitLabRateLimitException}. java-gitlab-api does not give access to the response, only the status in the error message.
+     * Only the status is matched, not any 429 in a path, a line number or a sha
+     */
+    static boolean isRateLimited(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String message = t.getMessage();
+            if (t instanceof GitLabRateLimitException || (message != null && RATE_LIMITED.matcher(message).find())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @CheckForNull
+    private static Duration getRetryAfter(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof GitLabRateLimitException) {
+                return ((GitLabRateLimitException) t).getRetryAfter();
+            }
+        }
+        return null;
+    }
+}
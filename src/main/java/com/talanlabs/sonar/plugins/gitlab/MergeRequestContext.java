@@ -0,0 +1,69 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import com.talanlabs.gitlab.api.Paged;
+import com.talanlabs.gitlab.api.v4.GitLabAPI;
+import com.talanlabs.gitlab.api.v4.GitlabMergeRequestDiff;
+
+import java.io.IOException;
+
+/**
+ * Merge request of the analysis, its diff version is loaded once on first use and shared by all discussions
+ */
+public class MergeRequestContext {
+
+    private final GitLabAPI gitLabAPI;
+    private final Integer projectId;
+    private final int mergeRequestIid;
+    private volatile GitlabMergeRequestDiff mergeRequestDiff;
+
+    public MergeRequestContext(GitLabAPI gitLabAPI, Integer projectId, int mergeRequestIid) {
+        this.gitLabAPI = gitLabAPI;
+        this.projectId = projectId;
+        this.mergeRequestIid = mergeRequestIid;
+    }
+
+    public Integer getProjectId() {
+        return projectId;
+    }
+
+    public int getMergeRequestIid() {
+        return mergeRequestIid;
+    }
+
+    /**
+     * Latest diff version of the merge request, a failed load is retried on next call
+     */
+    public GitlabMergeRequestDiff getMergeRequestDiff() throws IOException {
+        GitlabMergeRequestDiff result = mergeRequestDiff;
+        if (result == null) {
+            synchronized (this) {
+                result = mergeRequestDiff;
+                if (result == null) {
+                    Paged<GitlabMergeRequestDiff> mergeRequestDiffs = gitLabAPI.getGitLabAPIMergeRequestDiff().getMergeRequestDiff(projectId, mergeRequestIid);
+
+                    GitLabApiV4Wrapper.checkArgument(mergeRequestDiffs.getResults() != null && !mergeRequestDiffs.getResults().isEmpty(), "There are no merge request diffs.");
+
+                    result = mergeRequestDiffs.getResults().get(0);
+                    mergeRequestDiff = result;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ParallelUtils {
+
+    private ParallelUtils() {
+        // Nothing
+    }
+
+    /**
+     * Run tasks with at most {@code parallelism} tasks at the same time
+     *
+     * @param name        prefix for thread names
+     * @param parallelism max concurrent tasks, 1 or less runs all tasks in the current thread
+     * @param tasks       tasks to run
+     * @return results in the same order as tasks
+     */
+    public static <T> List<T> invokeAll(String name, int parallelism, List<? extends Task<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (parallelism <= 1 || tasks.size() <= 1) {
+            for (Task<T> task : tasks) {
+                results.add(task.call());
+            }
+            return results;
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()), new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build());
+        try {
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Task<T> task : tasks) {
+                futures.add(executorService.submit(task));
+            }
+            for (Future<T> future : futures) {
+                results.add(getResult(future));
+            }
+            return results;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static <T> T getResult(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Task<T> extends Callable<T> {
+
+        @Override
+        T call() throws IOException;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Index of added lines per file. Give for a path and a line the first revision (in sonar.gitlab.commit_sha order) which added this line with the same content.
+ */
+public class PatchLineIndex {
+
+    private final List<String> revisions;
+    private final Map<String, FileLines> linesByPath = new HashMap<>();
+
+    public PatchLineIndex(List<String> revisions, Map<String, Map<String, PatchLines>> positionsByRevision) {
+        this.revisions = revisions;
+
+        for (int i = 0; i < revisions.size(); i++) {
+            Map<String, PatchLines> positionsByFile = positionsByRevision.get(revisions.get(i));
+            if (positionsByFile == null) {
+                continue;
+            }
+            for (Map.Entry<String, PatchLines> entry : positionsByFile.entrySet()) {
+                FileLines fileLines = linesByPath.computeIfAbsent(entry.getKey(), k -> new FileLines());
+                PatchLines patchLines = entry.getValue();
+                for (int j = 0; j < patchLines.size(); j++) {
+                    fileLines.add(patchLines.getNumber(j), i, patchLines.getHash(j));
+                }
+            }
+        }
+    }
+
+    public boolean hasFile(String path) {
+        return linesByPath.containsKey(path);
+    }
+
+    @CheckForNull
+    public String getRevision(String path, int lineNumber, @Nullable String content) {
+        FileLines fileLines = linesByPath.get(path);
+        if (fileLines == null || content == null) {
+            return null;
+        }
+        int revision = fileLines.find(lineNumber, PatchLines.hash(content));
+        return revision != -1 ? revisions.get(revision) : null;
+    }
+
+    /**
+     * Open addressing int set of line numbers, each line pointing to a chain of (revision, content hash) entries sorted by revision
+     */
+    static class FileLines {
+
+        private static final int FREE = Integer.MIN_VALUE;
+
+        private int[] keys = newKeys(16);
+        private int[] heads = new int[16];
+        private int size;
+
+        private int[] entryRevisions = new int[16];
+        private long[] entryHashes = new long[16];
+        private int[] entryNexts = new int[16];
+        private int entryCount;
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, FREE);
+            return keys;
+        }
+
+        private static int slot(int[] keys, int line) {
+            int mask = keys.length - 1;
+            // Top bits of the Fibonacci hash, as many as the capacity needs
+            int slot = (line * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(keys.length));
+            while (keys[slot] != FREE && keys[slot] != line) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        void add(int line, int revision, long hash) {
+            int entry = newEntry(revision, hash);
+
+            int slot = slot(keys, line);
+            if (keys[slot] == FREE) {
+                keys[slot] = line;
+                heads[slot] = entry;
+                size++;
+                if (size * 2 > keys.length) {
+                    rehash();
+                }
+                return;
+            }
+
+            int last = heads[slot];
+            while (entryNexts[last] != -1) {
+                last = entryNexts[last];
+            }
+            entryNexts[last] = entry;
+        }
+
+        int find(int line, long hash) {
+            int slot = slot(keys, line);
+            if (keys[slot] == FREE) {
+                return -1;
+            }
+            for (int entry = heads[slot]; entry != -1; entry = entryNexts[entry]) {
+                if (entryHashes[entry] == hash) {
+                    return entryRevisions[entry];
+                }
+            }
+            return -1;
+        }
+
+        private int newEntry(int revision, long hash) {
+            if (entryCount == entryRevisions.length) {
+                int capacity = entryCount * 2;
+                entryRevisions = Arrays.copyOf(entryRevisions, capacity);
+                entryHashes = Arrays.copyOf(entryHashes, capacity);
+                entryNexts = Arrays.copyOf(entryNexts, capacity);
+            }
+            entryRevisions[entryCount] = revision;
+            entryHashes[entryCount] = hash;
+            entryNexts[entryCount] = -1;
+            return entryCount++;
+        }
+
+        private void rehash() {
+            int[] oldKeys = keys;
+            int[] oldHeads = heads;
+            keys = newKeys(oldKeys.length * 2);
+            heads = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    heads[slot] = oldHeads[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import java.util.Arrays;
+
+/**
+ * Added lines of a file diff, as line numbers and 64-bit hashes of the line contents
+ */
+public class PatchLines {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int[] numbers;
+    private final long[] hashes;
+    private final int size;
+
+    PatchLines(int[] numbers, long[] hashes, int size) {
+        this.numbers = numbers;
+        this.hashes = hashes;
+        this.size = size;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * FNV-1a 64-bit hash of the chars of the content
+     */
+    public static long hash(CharSequence content) {
+        return hash(content, 0, content.length());
+    }
+
+    public static long hash(CharSequence content, int start, int end) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            char c = content.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getNumber(int index) {
+        return numbers[index];
+    }
+
+    public long getHash(int index) {
+        return hashes[index];
+    }
+
+    public static class Builder {
+
+        private int[] numbers = new int[16];
+        private long[] hashes = new long[16];
+        private int size;
+
+        private Builder() {
+            // Nothing
+        }
+
+        public Builder add(int number, long hash) {
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            numbers[size] = number;
+            hashes[size] = hash;
+            size++;
+            return this;
+        }
+
+        public PatchLines build() {
+            return new PatchLines(Arrays.copyOf(numbers, size), Arrays.copyOf(hashes, size), size);
+        }
+    }
+}
@@ -16,41 +16,132 @@
  */
 package com.talanlabs.sonar.plugins.gitlab;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 public class PatchUtils {
 
-    // http://en.wikipedia.org/wiki/Diff_utility#Unified_format
-    private static final Pattern PATCH_PATTERN = Pattern.compile("@@\\p{Space}-[0-9]+(?:,[0-9]+)?\\p{Space}\\+([0-9]+)(?:,[0-9]+)?\\p{Space}@@.*");
-
     private PatchUtils() {
         // Nothing
     }
 
-    public static Set<IGitLabApiWrapper.Line> getPositionsFromPatch(String patch) {
-        Set<IGitLabApiWrapper.Line> positions = new HashSet<>();
+    /**
+     * Added lines of a unified diff with their new line numbers, in a single pass over the patch without regex and without creating a String per line
+     */
+    public static PatchLines getPatchLines(String patch) {
+        PatchLines.Builder builder = PatchLines.newBuilder();
 
+        int length = patch.length();
         int currentLine = -1;
-        for (String line : patch.split("[\\r\\n]+")) {
-            if (line.startsWith("@")) {
-                Matcher matcher = PATCH_PATTERN.matcher(line);
-                if (!matcher.matches()) {
-                    throw new IllegalStateException("Unable to parse line:\n\t" + line + "\nFull patch: \n\t" + patch);
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && patch.charAt(end) != '\n' && patch.charAt(end) != '\r') {
+                end++;
+            }
+            if (end > start) {
+                char first = patch.charAt(start);
+                if (first == '@') {
+                    currentLine = parseHunkHeader(patch, start, end);
+                    if (currentLine < 0) {
+                        throw new IllegalStateException("Unable to parse line:\n\t" + patch.substring(start, end) + "\nFull patch: \n\t" + patch);
+                    }
+                } else if (first == '+') {
+                    builder.add(currentLine, PatchLines.hash(patch, start + 1, end));
+                    currentLine++;
+                } else if (first == ' ') {
+                    // Can't comment line if not addition or deletion due to following bug
+                    // https://gitlab.com/gitlab-org/gitlab-ce/issues/26606
+                    currentLine++;
                 }
-                currentLine = Integer.parseInt(matcher.group(1));
-            } else if (line.startsWith("+")) {
-                positions.add(new IGitLabApiWrapper.Line(currentLine, line.replaceFirst("\\+", "")));
-                currentLine++;
-            } else if (line.startsWith(" ")) {
-                // Can't comment line if not addition or deletion due to following bug
-                // https://gitlab.com/gitlab-org/gitlab-ce/issues/26606
-                currentLine++;
             }
+            start = end + 1;
         }
 
-        return positions;
+        return builder.build();
+    }
+
+    /**
+     * Parse a hunk header "@@ -l,s +l,s @@ optional section", http://en.wikipedia.org/wiki/Diff_utility#Unified_format
+     *
+     * @return new file start line or -1 if not a valid header
+     */
+    private static int parseHunkHeader(CharSequence patch, int start, int end) {
+        int i = start;
+        if (!startsWith(patch, i, end, "@@") || !isSpace(patch, i + 2, end) || !startsWith(patch, i + 3, end, "-")) {
+            return -1;
+        }
+        i = skipRange(patch, i + 4, end);
+        if (i < 0 || !isSpace(patch, i, end) || !startsWith(patch, i + 1, end, "+")) {
+            return -1;
+        }
+        i += 2;
+        int newStart = 0;
+        int digitsStart = i;
+        while (i < end && isDigit(patch.charAt(i))) {
+            int digit = patch.charAt(i) - '0';
+            if (newStart > (Integer.MAX_VALUE - digit) / 10) {
+                return -1;
+            }
+            newStart = newStart * 10 + digit;
+            i++;
+        }
+        if (i == digitsStart) {
+            return -1;
+        }
+        if (i < end && patch.charAt(i) == ',') {
+            i = skipDigits(patch, i + 1, end);
+            if (i < 0) {
+                return -1;
+            }
+        }
+        if (!isSpace(patch, i, end) || !startsWith(patch, i + 1, end, "@@")) {
+            return -1;
+        }
+        for (int j = i + 3; j < end; j++) {
+            char c = patch.charAt(j);
+            // Line terminators not matched by .
+            if (c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return -1;
+            }
+        }
+        return newStart;
+    }
+
+    private static int skipRange(CharSequence patch, int start, int end) {
+        int i = skipDigits(patch, start, end);
+        if (i >= 0 && i < end && patch.charAt(i) == ',') {
+            return skipDigits(patch, i + 1, end);
+        }
+        return i;
+    }
+
+    private static int skipDigits(CharSequence patch, int start, int end) {
+        int i = start;
+        while (i < end && isDigit(patch.charAt(i))) {
+            i++;
+        }
+        return i > start ? i : -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSpace(CharSequence patch, int index, int end) {
+        if (index >= end) {
+            return false;
+        }
+        char c = patch.charAt(index);
+        return c == ' ' || c == '\t' || c == '\u000B' || c == '\f';
+    }
+
+    private static boolean startsWith(CharSequence patch, int index, int end, String prefix) {
+        if (index + prefix.length() > end) {
+            return false;
+        }
+        for (int j = 0; j < prefix.length(); j++) {
+            if (patch.charAt(index + j) != prefix.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,136 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import com.google.common.hash.Hashing;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonarqube.ws.Rules;
+
+import javax.annotation.CheckForNull;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rules of a SonarQube server kept on disk between analyses, as protobuf messages with the time they were loaded.
+ * Rules older than the time to live are loaded again.
+ */
+public class PersistentRuleCache {
+
+    private static final Logger LOG = Loggers.get(PersistentRuleCache.class);
+
+    private static final int MAGIC = 0x53475231;
+    private static final int MAX_RULE_SIZE = 16 * 1024 * 1024;
+
+    private final Path file;
+    private final long timeToLive;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    public PersistentRuleCache(File directory, String serverUrl, long timeToLive) {
+        // One file per server, rules of different servers may differ for the same key
+        this.file = directory.toPath().resolve("rules").resolve(Hashing.sha256().hashString(String.valueOf(serverUrl), StandardCharsets.UTF_8).toString().substring(0, 16) + ".rules");
+        this.timeToLive = timeToLive;
+
+        load();
+    }
+
+    @CheckForNull
+    public Rules.Rule get(String ruleKey) {
+        Entry entry = entries.get(ruleKey);
+        if (entry == null || System.currentTimeMillis() - entry.loadedAt > timeToLive) {
+            return null;
+        }
+        return entry.rule;
+    }
+
+    public void put(Rules.Rule rule) {
+        entries.put(rule.getKey(), new Entry(System.currentTimeMillis(), rule));
+        dirty = true;
+    }
+
+    /**
+     * Write the rules on disk if some were added
+     */
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            CacheFileUtils.write(file, output -> {
+                long now = System.currentTimeMillis();
+                Entry[] values = entries.values().stream().filter(e -> now - e.loadedAt <= timeToLive).toArray(Entry[]::new);
+                output.writeInt(MAGIC);
+                output.writeInt(values.length);
+                for (Entry entry : values) {
+                    byte[] bytes = entry.rule.toByteArray();
+                    output.writeLong(entry.loadedAt);
+                    output.writeInt(bytes.length);
+                    output.write(bytes);
+                }
+            });
+        } catch (IOException e) {
+            LOG.debug("Unable to save rules in " + file, e);
+        }
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Unknown cache file format");
+            }
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                long loadedAt = input.readLong();
+                int length = input.readInt();
+                if (length < 0 || length > MAX_RULE_SIZE) {
+                    throw new IOException("Invalid rule size " + length);
+                }
+                byte[] bytes = new byte[length];
+                input.readFully(bytes);
+                Rules.Rule rule = Rules.Rule.parseFrom(bytes);
+                entries.put(rule.getKey(), new Entry(loadedAt, rule));
+            }
+            LOG.debug("Loaded {} rule(s) from {}", count, file);
+        } catch (IOException e) {
+            LOG.debug("Unable to read rules from " + file, e);
+            entries.clear();
+        }
+    }
+
+    private static class Entry {
+
+        private final long loadedAt;
+        private final Rules.Rule rule;
+
+        Entry(long loadedAt, Rules.Rule rule) {
+            this.loadedAt = loadedAt;
+            this.rule = rule;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import com.google.common.hash.Hashing;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import javax.annotation.CheckForNull;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Small values kept on disk between analyses, one file per key with the time it was stored.
+ * Values older than the time to live are ignored.
+ */
+public class PersistentValueCache {
+
+    private static final Logger LOG = Loggers.get(PersistentValueCache.class);
+
+    private static final int MAGIC = 0x53475631;
+    private static final String EXTENSION = ".value";
+
+    private final Path directory;
+    private final long timeToLive;
+
+    public PersistentValueCache(File directory, String name, long timeToLive) {
+        this.directory = directory.toPath().resolve(name);
+        this.timeToLive = timeToLive;
+    }
+
+    @CheckForNull
+    public String get(String key) {
+        Path file = file(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Unknown cache file format");
+            }
+            long storedAt = input.readLong();
+            String value = input.readUTF();
+            return System.currentTimeMillis() - storedAt <= timeToLive ? value : null;
+        } catch (IOException e) {
+            LOG.debug("Unable to read cached value from " + file, e);
+            return null;
+        }
+    }
+
+    public void put(String key, String value) {
+        Path file = file(key);
+        try {
+            CacheFileUtils.write(file, output -> {
+                output.writeInt(MAGIC);
+                output.writeLong(System.currentTimeMillis());
+                output.writeUTF(value);
+            });
+        } catch (IOException e) {
+            LOG.debug("Unable to save cached value in " + file, e);
+        }
+    }
+
+    public void remove(String key) {
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            LOG.debug("Unable to delete cached value of " + key, e);
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString().substring(0, 32) + EXTENSION);
+    }
+}
@@ -25,6 +25,8 @@ import org.apache.commons.text.StringEscapeUtils;
 import org.sonar.api.batch.rule.Severity;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -217,7 +219,11 @@ public class Reporter {
         }
     }
 
-    public String buildJson() {
+    /**
+     * Write json report issue by issue, the report itself is never built in memory.
+     * Issues are kept in process order, they are already held for the comments so only references are added
+     */
+    public void writeJson(Writer writer) throws IOException {
         Function<ReportIssue, String> f;
         if (gitLabPluginConfiguration.jsonMode().equals(JsonMode.CODECLIMATE)) {
             f = this::buildIssueCodeQualityJson;
@@ -226,7 +232,14 @@ public class Reporter {
         } else {
             f = r -> "";
         }
-        return jsonIssues.stream().map(f).collect(Collectors.joining(",", "[", "]"));
+        writer.write('[');
+        for (int i = 0; i < jsonIssues.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(f.apply(jsonIssues.get(i)));
+        }
+        writer.write(']');
     }
 
     private String buildIssueCodeQualityJson(ReportIssue reportIssue) {
@@ -26,9 +26,14 @@ import org.sonar.api.utils.log.Loggers;
 import java.io.File;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 
 @ScannerSide
 @ExtensionPoint
@@ -42,12 +47,15 @@ public class ReporterBuilder {
     private final SonarFacade sonarFacade;
     private final CommitFacade commitFacade;
     private final MarkDownUtils markDownUtils;
+    private final FreemarkerTemplates freemarkerTemplates;
 
-    public ReporterBuilder(GitLabPluginConfiguration gitLabPluginConfiguration, SonarFacade sonarFacade, CommitFacade commitFacade, MarkDownUtils markDownUtils) {
+    public ReporterBuilder(GitLabPluginConfiguration gitLabPluginConfiguration, SonarFacade sonarFacade, CommitFacade commitFacade, MarkDownUtils markDownUtils,
+                           FreemarkerTemplates freemarkerTemplates) {
         this.gitLabPluginConfiguration = gitLabPluginConfiguration;
         this.sonarFacade = sonarFacade;
         this.commitFacade = commitFacade;
         this.markDownUtils = markDownUtils;
+        this.freemarkerTemplates = freemarkerTemplates;
     }
 
     /**
@@ -64,7 +72,8 @@ public class ReporterBuilder {
 
         processIssues(report, issues);
 
-        if (gitLabPluginConfiguration.tryReportIssuesInline() && report.hasFileLine()) {
+        // Reconciliation also resolves the comments of fixed issues when there is no more issue to report
+        if (gitLabPluginConfiguration.tryReportIssuesInline() && (report.hasFileLine() || gitLabPluginConfiguration.inlineReconciliation())) {
             updateReviewComments(report);
         }
 
@@ -73,8 +82,7 @@ public class ReporterBuilder {
         }
 
         if (!gitLabPluginConfiguration.jsonMode().equals(JsonMode.NONE)) {
-            String json = report.buildJson();
-            commitFacade.writeJsonFile(json);
+            commitFacade.writeJsonFile(report);
         }
 
         return report;
@@ -85,7 +93,20 @@ public class ReporterBuilder {
     }
 
     private void processIssues(Reporter report, List<Issue> issues) {
-        getStreamIssue(issues).sorted(ISSUE_COMPARATOR).forEach(i -> processIssue(report, i));
+        List<Issue> filteredIssues = getStreamIssue(issues).sorted(ISSUE_COMPARATOR).collect(Collectors.toList());
+        if (gitLabPluginConfiguration.loadRule()) {
+            prefetchRules(filteredIssues);
+        }
+        filteredIssues.forEach(i -> processIssue(report, i));
+    }
+
+    /**
+     * Load all rules of reported issues before processing, so that processing makes no Sonar query
+     */
+    private void prefetchRules(List<Issue> issues) {
+        int issueFilter = toSeverityNum(gitLabPluginConfiguration.issueFilter());
+        Set<String> ruleKeys = issues.stream().filter(i -> toSeverityNum(i.getSeverity()) >= issueFilter).map(Issue::getRuleKey).collect(Collectors.toCollection(LinkedHashSet::new));
+        sonarFacade.prefetchRules(ruleKeys);
     }
 
     private Stream<Issue> getStreamIssue(List<Issue> issues) {
@@ -145,47 +166,60 @@ public class ReporterBuilder {
 
     private void updateReviewComments(Reporter report) {
         LOG.info("Will try to update review comments.");
+        InlineCommentScheduler scheduler = new InlineCommentScheduler(gitLabPluginConfiguration.inlineCommentParallelism());
+        InlineCommentReconciler reconciler = gitLabPluginConfiguration.inlineReconciliation() ? new InlineCommentReconciler(commitFacade, gitLabPluginConfiguration.projectKey()) : null;
         for (Map.Entry<String, Map<File, Map<Integer, List<ReportIssue>>>> entry : report.getFileLineMap().entrySet()) {
             String revision = entry.getKey();
 
             String username = commitFacade.getUsernameForRevision(revision);
 
             for (Map.Entry<File, Map<Integer, List<ReportIssue>>> entryPerFile : entry.getValue().entrySet()) {
-                updateReviewComments(revision, username, entryPerFile.getKey(), entryPerFile.getValue());
+                updateReviewComments(scheduler, reconciler, revision, username, entryPerFile.getKey(), entryPerFile.getValue());
             }
         }
+        if (reconciler != null) {
+            reconciler.reconcile(scheduler);
+        }
+        scheduler.run();
     }
 
-    private void updateReviewComments(String revision, String username, File file, Map<Integer, List<ReportIssue>> linePerIssuesMap) {
-        for (Map.Entry<Integer, List<ReportIssue>> entryPerLine : linePerIssuesMap.entrySet()) {
-            updateReviewComments(revision, username, file, entryPerLine.getKey(), entryPerLine.getValue());
+    private void updateReviewComments(InlineCommentScheduler scheduler, @Nullable InlineCommentReconciler reconciler, String revision, String username, File file, Map<Integer, List<ReportIssue>> linePerIssuesMap) {
+        for (Map.Entry<Integer, List<ReportIssue>> entryPerLine : new TreeMap<>(linePerIssuesMap).entrySet()) {
+            updateReviewComments(scheduler, reconciler, revision, username, file, entryPerLine.getKey(), entryPerLine.getValue());
         }
     }
 
-    private void updateReviewComments(String revision, String username, File file, Integer lineNumber, List<ReportIssue> reportIssues) {
+    private void updateReviewComments(InlineCommentScheduler scheduler, @Nullable InlineCommentReconciler reconciler, String revision, String username, File file, Integer lineNumber, List<ReportIssue> reportIssues) {
         LOG.debug("updateReviewComments {} {}", revision, reportIssues);
         if (gitLabPluginConfiguration.uniqueIssuePerInline()) {
             for (ReportIssue reportIssue : reportIssues) {
-                updateReviewCommentsPerInline(revision, username, file, lineNumber, Collections.singletonList(reportIssue));
+                updateReviewCommentsPerInline(scheduler, reconciler, revision, username, file, lineNumber, Collections.singletonList(reportIssue));
             }
         } else {
-            updateReviewCommentsPerInline(revision, username, file, lineNumber, reportIssues);
+            updateReviewCommentsPerInline(scheduler, reconciler, revision, username, file, lineNumber, reportIssues);
         }
     }
 
-    private void updateReviewCommentsPerInline(String revision, String username, File file, Integer lineNumber, List<ReportIssue> reportIssues) {
-        String body = new InlineCommentBuilder(gitLabPluginConfiguration, revision, username, lineNumber, reportIssues, markDownUtils).buildForMarkdown();
-        if (body != null && !body.trim().isEmpty()) {
-            boolean exists = commitFacade.hasSameCommitCommentsForFile(revision, file, lineNumber, body);
-            if (!exists) {
-                commitFacade.createOrUpdateReviewComment(revision, file, lineNumber, body);
-            }
+    private void updateReviewCommentsPerInline(InlineCommentScheduler scheduler, @Nullable InlineCommentReconciler reconciler, String revision, String username, File file, Integer lineNumber, List<ReportIssue> reportIssues) {
+        String body = new InlineCommentBuilder(gitLabPluginConfiguration, revision, username, lineNumber, reportIssues, markDownUtils, freemarkerTemplates).buildForMarkdown();
+        if (body == null || body.trim().isEmpty()) {
+            return;
+        }
+        if (reconciler != null) {
+            reconciler.add(revision, file, lineNumber, body, CommentMarkers.fingerprint(reportIssues));
+        } else {
+            scheduler.schedule(commitFacade.getPath(file), () -> {
+                boolean exists = commitFacade.hasSameCommitCommentsForFile(revision, file, lineNumber, body);
+                if (!exists) {
+                    commitFacade.createOrUpdateReviewComment(revision, file, lineNumber, body);
+                }
+            });
         }
     }
 
     private void updateGlobalComments(QualityGate qualityGate, Reporter report) {
         String username = commitFacade.getUsernameForRevision(gitLabPluginConfiguration.commitSHA().get(0));
-        String body = new GlobalCommentBuilder(gitLabPluginConfiguration, username, qualityGate, report, markDownUtils).buildForMarkdown();
+        String body = new GlobalCommentBuilder(gitLabPluginConfiguration, username, qualityGate, report, markDownUtils, freemarkerTemplates).buildForMarkdown();
         if (body != null && !body.trim().isEmpty()) {
             commitFacade.addGlobalComment(body);
         }
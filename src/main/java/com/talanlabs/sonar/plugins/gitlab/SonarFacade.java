@@ -43,7 +43,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.function.Predicate;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
@@ -55,6 +55,10 @@ public class SonarFacade {
     private static final Logger LOG = Loggers.get(SonarFacade.class);
     private static final String LOG_MSG = "{}: {} {} {}";
     private static final int MAX_SEARCH_ISSUES = 10000;
+    private static final int MAX_SEARCH_RULES_PAGE_SIZE = 500;
+    private static final int MAX_SHOW_RULES_PER_REPOSITORY = 5;
+    private static final String SEARCH_RULES_FIELDS = "repo,name,mdDesc,debtRemFn,remFn";
+    private static final long FIRST_QUERY_WAIT = 100L;
     private final GitLabPluginConfiguration gitLabPluginConfiguration;
     private final WsClient wsClient;
     private File projectBaseDir;
@@ -62,6 +66,7 @@ public class SonarFacade {
 
     private final Cache<String, File> componentCache = CacheBuilder.newBuilder().build();
     private final Cache<String, Rule> ruleCache = CacheBuilder.newBuilder().build();
+    private final PersistentRuleCache persistentRuleCache;
 
     public SonarFacade(Configuration settings, GitLabPluginConfiguration gitLabPluginConfiguration) {
         this.gitLabPluginConfiguration = gitLabPluginConfiguration;
@@ -70,6 +75,9 @@ public class SonarFacade {
                 .credentials(settings.get(CoreProperties.LOGIN).orElse(null), settings.get(CoreProperties.PASSWORD).orElse(null)).build();
 
         wsClient = WsClientFactories.getDefault().newClient(httpConnector);
+
+        File cacheDir = gitLabPluginConfiguration.persistentCacheDir();
+        persistentRuleCache = cacheDir != null ? new PersistentRuleCache(cacheDir, gitLabPluginConfiguration.baseUrl(), gitLabPluginConfiguration.ruleCacheTtl()) : null;
     }
 
     public void init(File projectBaseDir, File workDir) {
@@ -115,42 +123,48 @@ public class SonarFacade {
         return properties;
     }
 
+    /**
+     * Wait for the compute engine task, polling first after {@value #FIRST_QUERY_WAIT} ms then with exponentially growing waits, with jitter,
+     * up to sonar.gitlab.query_wait between two queries and until sonar.gitlab.query_timeout
+     */
     private String getAnalysisId(String ceTaskId) {
-        int queryMaxRetry = gitLabPluginConfiguration.queryMaxRetry();
-        long queryWait = gitLabPluginConfiguration.queryWait();
+        long maxWait = Math.max(gitLabPluginConfiguration.queryWait(), 1);
+        long deadline = System.currentTimeMillis() + gitLabPluginConfiguration.queryTimeout();
 
-        int retry = 0;
+        long wait = Math.min(FIRST_QUERY_WAIT, maxWait);
         String analysisId = null;
-        do {
+        while (analysisId == null) {
             Ce.Task task = getTask(ceTaskId);
             Ce.TaskStatus taskStatus = task.getStatus();
 
             if (Ce.TaskStatus.SUCCESS.equals(taskStatus)) {
                 analysisId = task.getAnalysisId();
             } else if (Ce.TaskStatus.IN_PROGRESS.equals(taskStatus) || Ce.TaskStatus.PENDING.equals(taskStatus)) {
-                LOG.info("Waiting quality gate to complete...");
-                try {
-                    Thread.sleep(queryWait);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new IllegalStateException(e.getMessage(), e);
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    LOG.error("Not find analyseId. Try increasing sonar.gitlab.query_timeout {}.", gitLabPluginConfiguration.queryTimeout());
+
+                    throw new IllegalStateException("Report processing is taking longer than the configured wait limit.");
                 }
+                LOG.info("Waiting quality gate to complete...");
+                sleep(Math.min(wait / 2 + ThreadLocalRandom.current().nextLong(wait / 2 + 1), remaining));
+                wait = Math.min(wait * 2, maxWait);
             } else {
                 throw new IllegalStateException("Analyze in SonarQube is not success (" + taskStatus + ")");
             }
-
-            retry++;
-        } while (retry < queryMaxRetry && analysisId == null);
-
-        if (analysisId == null) {
-            LOG.error("Not find analyseId. Try increasing sonar.gitlab.query_max_retry {}, sonar.gitlab.query_wait {}, or both.", gitLabPluginConfiguration.queryMaxRetry(),
-                    gitLabPluginConfiguration.queryWait());
-
-            throw new IllegalStateException("Report processing is taking longer than the configured wait limit.");
         }
         return analysisId;
     }
 
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
     private Ce.Task getTask(String ceTaskId) {
         Ce.TaskResponse taskResponse = wsClient.ce().task(new TaskRequest().setId(ceTaskId));
         return taskResponse.getTask();
@@ -218,6 +232,11 @@ public class SonarFacade {
         String projectKey = reportTaskProps.getProperty("projectKey");
         String refName = gitLabPluginConfiguration.refName();
         int pullRequestKey = gitLabPluginConfiguration.pullRequestKey();
+        int parallelism = gitLabPluginConfiguration.sonarQueryParallelism();
+        if (parallelism > 1) {
+            return getNewIssuesInParallel(projectKey, pullRequestKey, refName, parallelism);
+        }
+
         int page = 1;
         Integer nbPage = null;
 
@@ -232,6 +251,34 @@ public class SonarFacade {
         return issues;
     }
 
+    /**
+     * Load first page to know the page count, then all other pages concurrently. Issues are merged in page order.
+     */
+    private List<Issue> getNewIssuesInParallel(String projectKey, int pullRequestKey, String refName, int parallelism) {
+        Issues.SearchWsResponse firstSearchWsResponse = searchIssues(projectKey, pullRequestKey, refName, 1);
+        int nbPage = computeNbPage(firstSearchWsResponse.getTotal(), firstSearchWsResponse.getPs());
+
+        List<ParallelUtils.Task<Issues.SearchWsResponse>> tasks = new ArrayList<>();
+        for (int page = 2; page <= nbPage; page++) {
+            int p = page;
+            tasks.add(() -> searchIssues(projectKey, pullRequestKey, refName, p));
+        }
+
+        List<Issues.SearchWsResponse> searchWsResponses = new ArrayList<>(nbPage);
+        searchWsResponses.add(firstSearchWsResponse);
+        try {
+            searchWsResponses.addAll(ParallelUtils.invokeAll("sonar-issues", parallelism, tasks));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to search issues", e);
+        }
+
+        List<Issue> issues = new ArrayList<>();
+        for (Issues.SearchWsResponse searchWsResponse : searchWsResponses) {
+            issues.addAll(toIssues(searchWsResponse, refName));
+        }
+        return issues;
+    }
+
     private Issues.SearchWsResponse searchIssues(String componentKey, int pullRequestKey, String branch, int page) {
         SearchRequest searchRequest = new SearchRequest().setComponentKeys(Collections.singletonList(componentKey)).setP(String.valueOf(page)).setResolved("false");
         if (pullRequestKey != -1) {
@@ -267,27 +314,20 @@ public class SonarFacade {
             return Collections.emptyList();
         }
 
-        List<Issues.Component> components = issuesSearchWsResponse.getComponentsList();
-
-        Predicate<String> supported = ((Predicate<String>) Qualifiers.FILE::equals).or(Qualifiers.UNIT_TEST_FILE::equals);
+        // Files of the page indexed once, each issue is then resolved with a single lookup
+        Map<String, File> files = new HashMap<>();
+        for (Issues.Component component : issuesSearchWsResponse.getComponentsList()) {
+            String qualifier = component.getQualifier();
+            if ((Qualifiers.FILE.equals(qualifier) || Qualifiers.UNIT_TEST_FILE.equals(qualifier)) && !files.containsKey(component.getKey())) {
+                File file = componentCache.getIfPresent(component.getKey());
+                files.put(component.getKey(), file != null ? file : toFile(component, branch));
+            }
+        }
+        componentCache.putAll(files);
 
-        List<Issue> res = new ArrayList<>();
+        List<Issue> res = new ArrayList<>(issues.size());
         for (Issues.Issue issue : issues) {
-            Optional<Issues.Component> componentOptional = components.stream()
-                    .filter(c -> supported.test(c.getQualifier()))
-                    .filter(c -> c.getKey().equals(issue.getComponent()))
-                    .findFirst();
-
-            File file = null;
-            if (componentOptional.isPresent()) {
-                Issues.Component component = componentOptional.get();
-                try {
-                    file = componentCache.get(component.getKey(), () -> toFile(componentOptional.get(), branch));
-                } catch (Exception e) {
-                    throw new IllegalStateException("Failed to get component file for " + component.getKey(), e);
-                }
-            }
-            res.add(toIssue(issue, file));
+            res.add(toIssue(issue, files.get(issue.getComponent())));
         }
         return res;
     }
@@ -314,14 +354,132 @@ public class SonarFacade {
     public Rule getRule(String ruleKey) {
         try {
             return ruleCache.get(ruleKey, () -> {
-                Rules.ShowResponse showResponse = showRule(ruleKey);
-                return toRule(showResponse);
+                Rules.Rule rule = persistentRuleCache != null ? persistentRuleCache.get(ruleKey) : null;
+                if (rule == null) {
+                    rule = showRule(ruleKey).getRule();
+                    if (persistentRuleCache != null) {
+                        persistentRuleCache.put(rule);
+                    }
+                }
+                return toRule(rule);
             });
         } catch (Exception e) {
             throw new IllegalStateException("Failed to get rule " + ruleKey, e);
         }
     }
 
+    /**
+     * Write the rules loaded one by one by {@link #getRule(String)} in the persistent cache, once at the end of the analysis
+     */
+    public void saveRuleCache() {
+        if (persistentRuleCache != null) {
+            persistentRuleCache.save();
+        }
+    }
+
+    /**
+     * Load the rules not in cache yet, at most sonar.gitlab.sonar_query_parallelism queries at the same time.
+     * Rules of a repository are shown one by one, or searched with one query when more than {@value #MAX_SHOW_RULES_PER_REPOSITORY} of them are missing.
+     * Next {@link #getRule(String)} calls need no query.
+     */
+    public void prefetchRules(Collection<String> ruleKeys) {
+        Map<String, Set<String>> missingRuleKeysPerRepository = new LinkedHashMap<>();
+        for (String ruleKey : ruleKeys) {
+            if (ruleKey != null && ruleCache.getIfPresent(ruleKey) == null) {
+                Rules.Rule rule = persistentRuleCache != null ? persistentRuleCache.get(ruleKey) : null;
+                if (rule != null) {
+                    ruleCache.put(ruleKey, toRule(rule));
+                } else {
+                    missingRuleKeysPerRepository.computeIfAbsent(getRepository(ruleKey), k -> new LinkedHashSet<>()).add(ruleKey);
+                }
+            }
+        }
+        if (missingRuleKeysPerRepository.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        List<ParallelUtils.Task<List<Rules.Rule>>> tasks = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : missingRuleKeysPerRepository.entrySet()) {
+            if (entry.getValue().size() > MAX_SHOW_RULES_PER_REPOSITORY) {
+                tasks.add(() -> {
+                    try {
+                        return searchRules(entry.getKey(), entry.getValue());
+                    } catch (HttpException e) {
+                        LOG.warn("Unable to search rules of repository {}, they will be loaded one by one: {}", entry.getKey(), e.getMessage());
+                        return Collections.emptyList();
+                    }
+                });
+            } else {
+                for (String ruleKey : entry.getValue()) {
+                    tasks.add(() -> {
+                        try {
+                            return Collections.singletonList(showRule(ruleKey).getRule());
+                        } catch (HttpException e) {
+                            LOG.warn("Unable to load rule {}: {}", ruleKey, e.getMessage());
+                            return Collections.emptyList();
+                        }
+                    });
+                }
+            }
+        }
+
+        int count = 0;
+        try {
+            for (List<Rules.Rule> rules : ParallelUtils.invokeAll("sonar-rules", gitLabPluginConfiguration.sonarQueryParallelism(), tasks)) {
+                for (Rules.Rule rule : rules) {
+                    ruleCache.put(rule.getKey(), toRule(rule));
+                    if (persistentRuleCache != null) {
+                        persistentRuleCache.put(rule);
+                    }
+                }
+                count += rules.size();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load rules", e);
+        }
+        if (persistentRuleCache != null) {
+            persistentRuleCache.save();
+        }
+        LOG.debug("Loaded {} rule(s) of {} repositories in {} ms", count, missingRuleKeysPerRepository.size(), System.currentTimeMillis() - start);
+    }
+
+    private static String getRepository(String ruleKey) {
+        int index = ruleKey.indexOf(':');
+        return index >= 0 ? ruleKey.substring(0, index) : ruleKey;
+    }
+
+    /**
+     * api/rules/search filters on a single rule key only, so rules are searched by repository and only the expected keys are kept.
+     * Only the fields read by {@link #toRule(Rules.Rule)} are requested, and pages are loaded until all keys are found or the repository is exhausted.
+     */
+    private List<Rules.Rule> searchRules(String repository, Set<String> ruleKeys) {
+        List<Rules.Rule> rules = new ArrayList<>();
+        int page = 1;
+        boolean hasMorePages;
+        do {
+            GetRequest getRequest = new GetRequest("api/rules/search").setParam("repositories", repository)
+                    .setParam("f", SEARCH_RULES_FIELDS).setParam("p", page).setParam("ps", MAX_SEARCH_RULES_PAGE_SIZE).setMediaType(MediaTypes.PROTOBUF);
+
+            WsResponse wsResponse = wsClient.wsConnector().call(getRequest);
+
+            if (wsResponse.code() != 200) {
+                throw new HttpException(wsClient.wsConnector().baseUrl() + toString(getRequest), wsResponse.code(), wsResponse.content());
+            }
+
+            Rules.SearchResponse searchResponse;
+            try {
+                searchResponse = Rules.SearchResponse.parseFrom(wsResponse.contentStream());
+            } catch (IOException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            searchResponse.getRulesList().stream().filter(r -> ruleKeys.contains(r.getKey())).forEach(rules::add);
+            hasMorePages = (long) page * MAX_SEARCH_RULES_PAGE_SIZE < searchResponse.getTotal();
+            page++;
+        } while (rules.size() < ruleKeys.size() && hasMorePages);
+        return rules;
+    }
+
     private Rules.ShowResponse showRule(String ruleKey) {
         GetRequest getRequest = new GetRequest("api/rules/show").setParam("key", ruleKey).setMediaType(MediaTypes.PROTOBUF);
 
@@ -338,8 +496,7 @@ public class SonarFacade {
         }
     }
 
-    private Rule toRule(Rules.ShowResponse showResponse) {
-        Rules.Rule rule = showResponse.getRule();
+    private Rule toRule(Rules.Rule rule) {
         if (rule == null) {
             return Rule.newBuilder().build();
         }
@@ -0,0 +1,154 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Source files mapped once per run with an index of line offsets, only the requested line is decoded.
+ * Bounded by an approximate size in bytes of the line indexes, least recently used files are evicted first
+ */
+public class SourceLineCache {
+
+    private static final Logger LOG = Loggers.get(SourceLineCache.class);
+
+    static final long DEFAULT_MAX_WEIGHT = 64L * 1024 * 1024;
+
+    private final Cache<File, SourceLines> cache;
+
+    public SourceLineCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    SourceLineCache(long maxWeight) {
+        // A single segment, else Guava splits the weight between segments and a big file is evicted as soon as it is loaded
+        this.cache = CacheBuilder.newBuilder().concurrencyLevel(1).maximumWeight(maxWeight).weigher((File file, SourceLines lines) -> lines.weight()).build();
+    }
+
+    /**
+     * Content of the line, same as Files.readAllLines(file).get(lineNumber - 1)
+     *
+     * @return null if line is not readable as UTF-8 or does not exist
+     */
+    @CheckForNull
+    public String getLine(File file, int lineNumber) {
+        SourceLines lines;
+        try {
+            lines = cache.get(file, () -> load(file));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to read file " + file, e.getCause());
+        }
+        return lines.getLine(lineNumber > 0 ? lineNumber - 1 : 0);
+    }
+
+    private static SourceLines load(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new SourceLines(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.trace("Not read all line for file {}", file, e);
+            return new SourceLines(null);
+        }
+    }
+
+    static class SourceLines {
+
+        private final ByteBuffer content;
+        private int[] starts;
+        private int count;
+
+        SourceLines(@Nullable ByteBuffer content) {
+            this.content = content;
+            this.starts = new int[16];
+            if (content != null) {
+                index();
+            }
+        }
+
+        /**
+         * Line breaks are \n, \r or \r\n like in BufferedReader.readLine, these bytes are never part of a multi-byte UTF-8 character
+         */
+        private void index() {
+            int length = content.limit();
+            if (length == 0) {
+                return;
+            }
+            add(0);
+            int i = 0;
+            while (i < length) {
+                byte b = content.get(i);
+                if (b == '\n' || b == '\r') {
+                    i += b == '\r' && i + 1 < length && content.get(i + 1) == '\n' ? 2 : 1;
+                    if (i < length) {
+                        add(i);
+                    }
+                } else {
+                    i++;
+                }
+            }
+        }
+
+        private void add(int start) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            starts[count++] = start;
+        }
+
+        @CheckForNull
+        String getLine(int index) {
+            if (content == null || index >= count) {
+                return null;
+            }
+            int end = index + 1 < count ? starts[index + 1] : content.limit();
+            if (end > starts[index] && content.get(end - 1) == '\n') {
+                end--;
+            }
+            if (end > starts[index] && content.get(end - 1) == '\r') {
+                end--;
+            }
+            try {
+                return StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT)
+                        .decode(content.duplicate().limit(end).position(starts[index])).toString();
+            } catch (CharacterCodingException e) {
+                LOG.trace("Not read line {}", index + 1, e);
+                return null;
+            }
+        }
+
+        int weight() {
+            return starts.length * 4;
+        }
+    }
+}
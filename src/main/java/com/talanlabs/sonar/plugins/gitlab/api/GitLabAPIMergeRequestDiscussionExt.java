@@ -16,18 +16,15 @@
  */
 package com.talanlabs.sonar.plugins.gitlab.api;
 
-import com.talanlabs.gitlab.api.Paged;
 import com.talanlabs.gitlab.api.v4.GitLabAPI;
-import com.talanlabs.gitlab.api.v4.Pagination;
 import com.talanlabs.gitlab.api.v4.http.Query;
-import com.talanlabs.gitlab.api.v4.utils.QueryHelper;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 
 import java.io.IOException;
-import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class GitLabAPIMergeRequestDiscussionExt {
 
@@ -36,85 +33,132 @@ public class GitLabAPIMergeRequestDiscussionExt {
 	private static final String BASE_URL = "/projects/%s/merge_requests/%d/discussions";
 
 	private final GitLabAPI gitLabAPI;
-	static List<GitlabDiscussionStatus> discussions;
+	private final GitLabHttpTransport transport;
+	/**
+	 * Discussions per project and merge request iid, loaded once by this analysis and kept up to date with its own creations.
+	 * An instance is bound to one GitLab url and token and is not shared with other analyses
+	 */
+	private final Map<String, GitlabDiscussionIndex> discussionIndexes = new ConcurrentHashMap<>();
 
 	public GitLabAPIMergeRequestDiscussionExt(GitLabAPI gitLabAPI) {
-		this.gitLabAPI = gitLabAPI;
+		this(gitLabAPI, new GitLabApiTransport(gitLabAPI));
 	}
 
-//
-//    /**
-//     * Gets a list of all discussions for a single merge request.
-//     * <p>
-//     * GET /projects/:id/merge_requests/:merge_request_iid/discussions
-//     *
-//     * @param projectId  (required) - The ID or URL-encoded path of the project
-//     * @param iid        (required) - The IID of a merge request
-//     * @param pagination (optional) - The ID of a discussion
-//     * @return Paged object of {@link GitlabDiscussionStatus} instances
-//     * @throws IOException
-//     */
-	public Paged<GitlabDiscussionStatus> getAllDiscussions(Serializable projectId, Integer iid, Pagination pagination)
-			throws IOException {
-		Query query = QueryHelper.getQuery(pagination);
-		String tailUrl = String.format(BASE_URL + "%s", gitLabAPI.sanitize(projectId), iid, query.build());
-		return gitLabAPI.retrieve().toPaged(tailUrl, GitlabDiscussionStatus[].class);
+	public GitLabAPIMergeRequestDiscussionExt(GitLabAPI gitLabAPI, GitLabHttpTransport transport) {
+		this.gitLabAPI = gitLabAPI;
+		this.transport = transport;
 	}
 
 	public Boolean hasDiscussion(Integer projectId, Integer mergeRequestIid, String fullPath, Integer lineNumber,
 			String body, String baseSha, String headSha) throws IOException {
 
-		if (discussions == null) {
+		boolean isExist = getDiscussionIndex(projectId, mergeRequestIid).contains(fullPath, lineNumber, baseSha, headSha, body);
 
-			LOG.debug("gettting existing Merge Request discussions");
+		if(isExist)
+			LOG.debug("-------------------Issue Comment already exist on MR----------------------");
 
-			Paged<GitlabDiscussionStatus> paged = getAllDiscussions(projectId, mergeRequestIid, null);
+		return isExist;
+	}
 
-			do {
-				if (paged.getResults() != null) {
-					if (discussions == null) {
-						discussions = new ArrayList<>();
-					}
-					discussions.addAll(paged.getResults());
-				}
-			} while ((paged = paged.nextPage()) != null);
-
-
-			if (LOG.isDebugEnabled()) {
-				LOG.debug("Existing count {}", discussions.size());
-				discussions.forEach(item -> {
-					LOG.debug("discussion {} note count {}", item.getId(), item.getNotes().size());
-					item.getNotes().forEach(note -> {
-						GitlabPosition position = note.getPosition();
-						if (position != null) {
-							LOG.debug("-File: {} {}", position.getNewPath(), position.getNewLine());
-							LOG.debug("-bSha: {}, hSha {}", position.getBaseSha(), position.getHeadSha());
-						}
-						LOG.debug("-Note {}: {}",note.getBody().length(), note.getBody());
-					});
-				});
+	/**
+	 * Register a discussion created by this analysis, so that it is known to next checks without loading the discussions again
+	 */
+	public void addDiscussion(Integer projectId, Integer mergeRequestIid, String fullPath, Integer lineNumber,
+			String body, String baseSha, String headSha) {
+		GitlabDiscussionIndex discussionIndex = discussionIndexes.get(key(projectId, mergeRequestIid));
+		if (discussionIndex != null) {
+			discussionIndex.add(fullPath, lineNumber, baseSha, headSha, body);
+		}
+	}
+
+	/**
+	 * Forget the discussions of the merge request, to call after a change not made by this class
+	 */
+	public void invalidate(Integer projectId, Integer mergeRequestIid) {
+		discussionIndexes.remove(key(projectId, mergeRequestIid));
+	}
+
+	/**
+	 * Existing discussions of the merge request, loaded once and shared with {@link #hasDiscussion}
+	 */
+	public List<GitlabDiscussionStatus> getDiscussions(Integer projectId, Integer mergeRequestIid) throws IOException {
+		return getDiscussionIndex(projectId, mergeRequestIid).getDiscussions();
+	}
+
+	/**
+	 * POST /projects/:id/merge_requests/:merge_request_iid/discussions
+	 */
+	public GitlabDiscussionStatus createDiscussion(Integer projectId, Integer mergeRequestIid, String fullPath, Integer lineNumber,
+			String body, String baseSha, String startSha, String headSha) throws IOException {
+		Query query = new Query().append("body", body)
+				.append("position[base_sha]", baseSha)
+				.append("position[start_sha]", startSha)
+				.append("position[head_sha]", headSha)
+				.append("position[position_type]", "text")
+				.append("position[old_path]", fullPath)
+				.append("position[new_path]", fullPath)
+				.append("position[new_line]", String.valueOf(lineNumber));
+		String tailUrl = String.format(BASE_URL + "%s", gitLabAPI.sanitize(projectId), mergeRequestIid, query.build());
+		return transport.execute("POST", tailUrl, GitlabDiscussionStatus.class);
+	}
 
-				LOG.debug("Current Issue Comment:");
-				LOG.debug("Path {} {}", fullPath, lineNumber);
-				LOG.debug("bSha: {}, hSha {}", baseSha, headSha);
-				LOG.debug("Note {}: {}",body.length(), body);
-			}
+	/**
+	 * PUT /projects/:id/merge_requests/:merge_request_iid/discussions/:discussion_id/notes/:note_id
+	 */
+	public GitlabNote updateNote(Integer projectId, Integer mergeRequestIid, String discussionId, Integer noteId, String body)
+			throws IOException {
+		Query query = new Query().append("body", body);
+		String tailUrl = String.format(BASE_URL + "/%s/notes/%d%s", gitLabAPI.sanitize(projectId), mergeRequestIid, discussionId, noteId, query.build());
+		return transport.execute("PUT", tailUrl, GitlabNote.class);
+	}
+
+	/**
+	 * PUT /projects/:id/merge_requests/:merge_request_iid/discussions/:discussion_id?resolved=true|false
+	 */
+	public GitlabDiscussionStatus resolveDiscussion(Integer projectId, Integer mergeRequestIid, String discussionId, boolean resolved)
+			throws IOException {
+		Query query = new Query().append("resolved", String.valueOf(resolved));
+		String tailUrl = String.format(BASE_URL + "/%s%s", gitLabAPI.sanitize(projectId), mergeRequestIid, discussionId, query.build());
+		return transport.execute("PUT", tailUrl, GitlabDiscussionStatus.class);
+	}
+
+	private GitlabDiscussionIndex getDiscussionIndex(Integer projectId, Integer mergeRequestIid) throws IOException {
+		String key = key(projectId, mergeRequestIid);
+		GitlabDiscussionIndex discussionIndex = discussionIndexes.get(key);
+		if (discussionIndex != null) {
+			return discussionIndex;
 		}
+		discussionIndex = loadDiscussionIndex(projectId, mergeRequestIid);
+		GitlabDiscussionIndex previous = discussionIndexes.putIfAbsent(key, discussionIndex);
+		return previous != null ? previous : discussionIndex;
+	}
+
+	private static String key(Integer projectId, Integer mergeRequestIid) {
+		return projectId + "/" + mergeRequestIid;
+	}
 
-		boolean isExist = discussions.stream().anyMatch(x ->
-			x.getNotes().stream().anyMatch(n ->
-				   	body.equals(n.getBody())
-				   	&& n.getPosition() != null
-					&& lineNumber.equals(n.getPosition().getNewLine())
-					&& baseSha.equals(n.getPosition().getBaseSha())
-					&& headSha.equals(n.getPosition().getHeadSha())
-					&& fullPath.equals(n.getPosition().getNewPath())
-				)
-			);
+	private GitlabDiscussionIndex loadDiscussionIndex(Integer projectId, Integer mergeRequestIid) throws IOException {
+		LOG.debug("gettting existing Merge Request discussions");
 
-		if(isExist)
-			LOG.debug("-------------------Issue Comment already exist on MR----------------------");
+		String tailUrl = String.format(BASE_URL, gitLabAPI.sanitize(projectId), mergeRequestIid);
+		List<GitlabDiscussionStatus> discussions = transport.getAll(tailUrl, GitlabDiscussionStatus[].class);
 
-		return isExist;
+		GitlabDiscussionIndex discussionIndex = new GitlabDiscussionIndex(discussions);
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Existing count {}, positioned notes {}", discussions.size(), discussionIndex.size());
+			discussions.forEach(item -> {
+				LOG.debug("discussion {} note count {}", item.getId(), item.getNotes().size());
+				item.getNotes().forEach(note -> {
+					GitlabPosition position = note.getPosition();
+					if (position != null) {
+						LOG.debug("-File: {} {}", position.getNewPath(), position.getNewLine());
+						LOG.debug("-bSha: {}, hSha {}", position.getBaseSha(), position.getHeadSha());
+					}
+					LOG.debug("-Note {}: {}",note.getBody().length(), note.getBody());
+				});
+			});
+		}
+		return discussionIndex;
 	}
 }
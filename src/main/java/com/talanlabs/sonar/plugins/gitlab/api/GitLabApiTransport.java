@@ -0,0 +1,53 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab.api;
+
+import com.talanlabs.gitlab.api.Paged;
+import com.talanlabs.gitlab.api.v4.GitLabAPI;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transport using the connections of java-gitlab-api
+ */
+public class GitLabApiTransport implements GitLabHttpTransport {
+
+    private final GitLabAPI gitLabAPI;
+
+    public GitLabApiTransport(GitLabAPI gitLabAPI) {
+        this.gitLabAPI = gitLabAPI;
+    }
+
+    @Override
+    public <T> T execute(String method, String tailUrl, Class<T> type) throws IOException {
+        return gitLabAPI.retrieve().method(method).to(tailUrl, type);
+    }
+
+    @Override
+    public <T> List<T> getAll(String tailUrl, Class<T[]> type) throws IOException {
+        List<T> results = new ArrayList<>();
+        Paged<T> paged = gitLabAPI.retrieve().toPaged(Paginations.withPerPage(tailUrl), type);
+        do {
+            if (paged.getResults() != null) {
+                results.addAll(paged.getResults());
+            }
+        } while ((paged = paged.nextPage()) != null);
+        return results;
+    }
+}
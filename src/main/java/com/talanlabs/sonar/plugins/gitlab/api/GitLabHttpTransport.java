@@ -0,0 +1,45 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab.api;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Transport for GitLab API v4 calls, tail urls are relative to /api/v4 and contain the query
+ */
+public interface GitLabHttpTransport {
+
+    /**
+     * Execute a request and read the response
+     *
+     * @param method  HTTP method
+     * @param tailUrl url relative to /api/v4
+     * @param type    type of the response
+     * @return response
+     */
+    <T> T execute(String method, String tailUrl, Class<T> type) throws IOException;
+
+    /**
+     * Get all pages of a list, with the largest page size unless the tail url sets one
+     *
+     * @param tailUrl url relative to /api/v4
+     * @param type    type of a page
+     * @return all results
+     */
+    <T> List<T> getAll(String tailUrl, Class<T[]> type) throws IOException;
+}
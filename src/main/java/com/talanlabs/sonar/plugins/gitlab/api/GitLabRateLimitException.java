@@ -0,0 +1,43 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab.api;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * GitLab answered 429 Too Many Requests, with the delay given by the Retry-After or RateLimit-Reset header when there is one
+ */
+public class GitLabRateLimitException extends IOException {
+
+    private final Duration retryAfter;
+
+    public GitLabRateLimitException(String message, @Nullable Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return delay before the next request, null when GitLab did not give one
+     */
+    @CheckForNull
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab.api;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of positioned notes of merge request discussions, by (new path, new line, base sha, head sha, body)
+ */
+public class GitlabDiscussionIndex {
+
+    private final List<GitlabDiscussionStatus> discussions;
+    private final Set<NoteKey> notes = ConcurrentHashMap.newKeySet();
+
+    public GitlabDiscussionIndex(List<GitlabDiscussionStatus> discussions) {
+        this.discussions = Collections.unmodifiableList(discussions);
+        for (GitlabDiscussionStatus discussion : discussions) {
+            if (discussion.getNotes() == null) {
+                continue;
+            }
+            for (GitlabNote note : discussion.getNotes()) {
+                GitlabPosition position = note.getPosition();
+                if (position != null && note.getBody() != null) {
+                    notes.add(new NoteKey(position.getNewPath(), position.getNewLine(), position.getBaseSha(), position.getHeadSha(), note.getBody()));
+                }
+            }
+        }
+    }
+
+    public boolean contains(String newPath, Integer newLine, String baseSha, String headSha, String body) {
+        return notes.contains(new NoteKey(newPath, newLine, baseSha, headSha, body));
+    }
+
+    public void add(String newPath, Integer newLine, String baseSha, String headSha, String body) {
+        notes.add(new NoteKey(newPath, newLine, baseSha, headSha, body));
+    }
+
+    /**
+     * Discussions as loaded, without the ones added afterwards
+     */
+    public List<GitlabDiscussionStatus> getDiscussions() {
+        return discussions;
+    }
+
+    public int size() {
+        return notes.size();
+    }
+
+    private static class NoteKey {
+
+        private final String newPath;
+        private final Integer newLine;
+        private final String baseSha;
+        private final String headSha;
+        private final String body;
+
+        NoteKey(String newPath, Integer newLine, String baseSha, String headSha, String body) {
+            this.newPath = newPath;
+            this.newLine = newLine;
+            this.baseSha = baseSha;
+            this.headSha = headSha;
+            this.body = body;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            NoteKey noteKey = (NoteKey) o;
+            return Objects.equals(newLine, noteKey.newLine) &&
+                    Objects.equals(newPath, noteKey.newPath) &&
+                    Objects.equals(baseSha, noteKey.baseSha) &&
+                    Objects.equals(headSha, noteKey.headSha) &&
+                    body.equals(noteKey.body);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(newPath, newLine, baseSha, headSha, body);
+        }
+    }
+}
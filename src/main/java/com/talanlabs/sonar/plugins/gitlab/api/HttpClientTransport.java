@@ -0,0 +1,344 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab.api;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Transport on {@link HttpClient}, connections are kept alive and pooled, requests are multiplexed when the server speaks HTTP/2
+ */
+public class HttpClientTransport implements GitLabHttpTransport {
+
+    private static final Logger LOG = Loggers.get(HttpClientTransport.class);
+
+    private static final String API_NAMESPACE = "/api/v4";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+    private static final String TOTAL_PAGES = "X-Total-Pages";
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SEE_OTHER = 303;
+    private static final int MAX_REDIRECTS = 5;
+    private static final Pattern NEXT_LINK = Pattern.compile("<([^>]+)>;\\s*rel=\"next\"");
+    private static final ObjectMapper MAPPER = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final HttpClient httpClient;
+    private final String apiUrl;
+    private final URI apiUri;
+    private final String token;
+    private final int parallelism;
+
+    /**
+     * @param parallelism max pages loaded at the same time when the page count is known, 1 or less follows next links one by one
+     */
+    public HttpClientTransport(String url, String token, boolean ignoreCertificate, @Nullable Proxy proxy, int parallelism) {
+        this.apiUrl = url.replaceAll("/+$", "") + API_NAMESPACE;
+        this.apiUri = URI.create(apiUrl);
+        this.token = token;
+        this.parallelism = parallelism;
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(CONNECT_TIMEOUT);
+        if (ignoreCertificate) {
+            builder.sslContext(trustAllSslContext());
+        }
+        if (proxy != null) {
+            builder.proxy(toProxySelector(proxy));
+            Authenticator authenticator = Authenticator.getDefault();
+            if (authenticator != null) {
+                builder.authenticator(authenticator);
+            }
+        }
+        this.httpClient = builder.build();
+    }
+
+    @Override
+    public <T> T execute(String method, String tailUrl, Class<T> type) throws IOException {
+        URI uri = URI.create(apiUrl + tailUrl);
+        return MAPPER.readValue(check(method, uri, send(method, uri)).body(), type);
+    }
+
+    @Override
+    public <T> List<T> getAll(String tailUrl, Class<T[]> type) throws IOException {
+        URI first = URI.create(apiUrl + Paginations.withPerPage(tailUrl));
+        HttpResponse<byte[]> response = check("GET", first, send("GET", first));
+        List<T> results = new ArrayList<>(Arrays.asList(MAPPER.readValue(response.body(), type)));
+
+        int totalPages = response.headers().firstValue(TOTAL_PAGES).map(Integer::parseInt).orElse(0);
+        if (totalPages > 1 && parallelism > 1) {
+            results.addAll(getPages(first, totalPages, type));
+            return results;
+        }
+
+        // Keyset pagination and large offset lists only give the next link
+        URI uri = nextPage(response);
+        while (uri != null) {
+            response = check("GET", uri, send("GET", uri));
+            results.addAll(Arrays.asList(MAPPER.readValue(response.body(), type)));
+            uri = nextPage(response);
+        }
+        return results;
+    }
+
+    private <T> List<T> getPages(URI first, int totalPages, Class<T[]> type) throws IOException {
+        List<T> results = new ArrayList<>();
+        for (int batchStart = 2; batchStart <= totalPages; batchStart += parallelism) {
+            List<URI> uris = new ArrayList<>();
+            List<CompletableFuture<HttpResponse<byte[]>>> futures = new ArrayList<>();
+            for (int page = batchStart; page <= Math.min(totalPages, batchStart + parallelism - 1); page++) {
+                URI uri = URI.create(first + "&page=" + page);
+                uris.add(uri);
+                futures.add(httpClient.sendAsync(request("GET", uri), HttpResponse.BodyHandlers.ofByteArray()));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                HttpResponse<byte[]> response = followRedirects("GET", uris.get(i), join(futures.get(i)));
+                results.addAll(Arrays.asList(MAPPER.readValue(check("GET", uris.get(i), response).body(), type)));
+            }
+        }
+        return results;
+    }
+
+    private HttpRequest request(String method, URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .header("PRIVATE-TOKEN", token)
+                .header("Accept", "application/json")
+                .build();
+    }
+
+    private HttpResponse<byte[]> send(String method, URI uri) throws IOException {
+        return followRedirects(method, uri, sendOnce(method, uri));
+    }
+
+    /**
+     * The client does not follow redirects, the token is only sent again to the origin of the GitLab url
+     */
+    private HttpResponse<byte[]> followRedirects(String method, URI uri, HttpResponse<byte[]> response) throws IOException {
+        String redirectMethod = method;
+        HttpResponse<byte[]> current = response;
+        for (int redirects = 0; isRedirect(current.statusCode()); redirects++) {
+            Optional<String> location = current.headers().firstValue("Location");
+            if (location.isEmpty()) {
+                return current;
+            }
+            if (redirects >= MAX_REDIRECTS) {
+                throw new IOException("Too many redirects for " + method + " " + uri);
+            }
+            URI target = current.uri().resolve(location.get());
+            if (!isSameOrigin(apiUri, target)) {
+                throw new IOException("Redirect of " + method + " " + uri + " to " + target.getScheme() + "://" + target.getAuthority() + " not followed, it is not the GitLab url");
+            }
+            if (current.statusCode() == SEE_OTHER) {
+                redirectMethod = "GET";
+            }
+            current = sendOnce(redirectMethod, target);
+        }
+        return current;
+    }
+
+    private static boolean isRedirect(int statusCode) {
+        return statusCode == 301 || statusCode == 302 || statusCode == SEE_OTHER || statusCode == 307 || statusCode == 308;
+    }
+
+    private static boolean isSameOrigin(URI origin, URI uri) {
+        return origin.getScheme().equalsIgnoreCase(uri.getScheme()) && origin.getHost() != null && origin.getHost().equalsIgnoreCase(uri.getHost()) && port(origin) == port(uri);
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private HttpResponse<byte[]> sendOnce(String method, URI uri) throws IOException {
+        try {
+            return httpClient.send(request(method, uri), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during " + method + " " + uri, e);
+        }
+    }
+
+    private static HttpResponse<byte[]> join(CompletableFuture<HttpResponse<byte[]>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static HttpResponse<byte[]> check(String method, URI uri, HttpResponse<byte[]> response) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            String message = "Can't get " + method + " " + uri + " : " + response.statusCode() + " " + new String(response.body(), StandardCharsets.UTF_8);
+            if (response.statusCode() == TOO_MANY_REQUESTS) {
+                throw new GitLabRateLimitException(message, retryAfter(response.headers(), System.currentTimeMillis()));
+            }
+            throw new IOException(message);
+        }
+        return response;
+    }
+
+    /**
+     * Retry-After is a delay in seconds or an HTTP date, GitLab RateLimit-Reset is an epoch time in seconds
+     */
+    @CheckForNull
+    static Duration retryAfter(HttpHeaders headers, long now) {
+        Optional<String> retryAfter = headers.firstValue(RETRY_AFTER);
+        if (retryAfter.isPresent()) {
+            String value = retryAfter.get().trim();
+            try {
+                return Duration.ofSeconds(Math.max(Long.parseLong(value), 0));
+            } catch (NumberFormatException e) {
+                // Not a delay
+            }
+            try {
+                return Duration.ofMillis(Math.max(ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - now, 0));
+            } catch (DateTimeParseException e) {
+                LOG.debug("Invalid {} header {}", RETRY_AFTER, value);
+            }
+        }
+        Optional<String> reset = headers.firstValue(RATE_LIMIT_RESET);
+        if (reset.isPresent()) {
+            try {
+                return Duration.ofMillis(Math.max(Long.parseLong(reset.get().trim()) * 1000 - now, 0));
+            } catch (NumberFormatException e) {
+                LOG.debug("Invalid {} header {}", RATE_LIMIT_RESET, reset.get());
+            }
+        }
+        return null;
+    }
+
+    @CheckForNull
+    private static URI nextPage(HttpResponse<?> response) {
+        for (String link : response.headers().allValues("Link")) {
+            Matcher matcher = NEXT_LINK.matcher(link);
+            if (matcher.find()) {
+                return URI.create(matcher.group(1));
+            }
+        }
+        return null;
+    }
+
+    private static ProxySelector toProxySelector(Proxy proxy) {
+        if (proxy.type() == Proxy.Type.DIRECT) {
+            return HttpClient.Builder.NO_PROXY;
+        }
+        if (proxy.type() == Proxy.Type.HTTP && proxy.address() instanceof InetSocketAddress) {
+            return ProxySelector.of((InetSocketAddress) proxy.address());
+        }
+        if (proxy.type() == Proxy.Type.SOCKS) {
+            LOG.warn("SOCKS proxy {} is not supported by the HTTP client, system proxy selector is used", proxy);
+        }
+        return ProxySelector.getDefault();
+    }
+
+    private static SSLContext trustAllSslContext() {
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, new TrustManager[]{new TrustAllManager()}, null);
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to create SSL context ignoring certificates", e);
+        }
+    }
+
+    /**
+     * Accept any certificate and host name, an extended trust manager also disables endpoint identification
+     */
+    private static class TrustAllManager extends X509ExtendedTrustManager {
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            // Nothing
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            // Nothing
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            // Nothing
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            // Nothing
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            // Nothing
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            // Nothing
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab.api;
+
+import com.talanlabs.gitlab.api.v4.Pagination;
+
+/**
+ * Page size and pagination mode of GitLab list calls
+ */
+public class Paginations {
+
+    /**
+     * Largest page size accepted by GitLab
+     */
+    public static final int MAX_PER_PAGE = 100;
+
+    private static final String PER_PAGE = "per_page=";
+
+    private Paginations() {
+        // Nothing
+    }
+
+    /**
+     * Pagination of java-gitlab-api calls with the largest page size
+     */
+    public static Pagination maxPerPage() {
+        return new Pagination().withPerPage(MAX_PER_PAGE);
+    }
+
+    /**
+     * Add the largest page size to the tail url if it has no page size
+     */
+    public static String withPerPage(String tailUrl) {
+        if (tailUrl.contains(PER_PAGE)) {
+            return tailUrl;
+        }
+        return append(tailUrl, PER_PAGE + MAX_PER_PAGE);
+    }
+
+    /**
+     * Use keyset pagination ordered by id, only for lists supporting it (projects for example). Next pages are only given by the Link header
+     */
+    public static String withKeyset(String tailUrl) {
+        return append(tailUrl, "pagination=keyset&order_by=id&sort=asc");
+    }
+
+    private static String append(String tailUrl, String parameters) {
+        return tailUrl + (tailUrl.contains("?") ? "&" : "?") + parameters;
+    }
+}
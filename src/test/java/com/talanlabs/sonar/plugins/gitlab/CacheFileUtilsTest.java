@@ -0,0 +1,59 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class CacheFileUtilsTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testWrite() throws IOException {
+        File dir = temp.newFolder();
+        File file = new File(dir, "values/a.value");
+
+        CacheFileUtils.write(file.toPath(), output -> output.writeUTF("first"));
+        CacheFileUtils.write(file.toPath(), output -> output.writeInt(42));
+
+        Assertions.assertThat(Files.readAllBytes(file.toPath())).containsExactly(0, 0, 0, 42);
+        Assertions.assertThat(file.getParentFile().list()).containsExactly("a.value");
+    }
+
+    @Test
+    public void testWriteFailed() throws IOException {
+        File dir = temp.newFolder();
+        File file = new File(dir, "values/a.value");
+        CacheFileUtils.write(file.toPath(), output -> output.writeInt(42));
+
+        Assertions.assertThatThrownBy(() -> CacheFileUtils.write(file.toPath(), output -> {
+            output.writeInt(1);
+            throw new IOException("Failed");
+        })).isInstanceOf(IOException.class).hasMessage("Failed");
+
+        Assertions.assertThat(Files.readAllBytes(file.toPath())).containsExactly(0, 0, 0, 42);
+        Assertions.assertThat(file.getParentFile().list()).containsExactly("a.value");
+    }
+}
@@ -25,6 +25,8 @@ import org.mockito.Mockito;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Collections;
 
@@ -81,7 +83,7 @@ public class CommitFacadeTest {
         File projectBaseDir = temp.newFolder();
         facade.initGitBaseDir(projectBaseDir);
 
-        facade.writeJsonFile("[{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver\"}]");
+        facade.writeJsonFile(reporter("[{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver\"}]"));
 
         File file = new File(projectBaseDir, "gl-code-quality-report.json");
         Assertions.assertThat(file).exists().hasContent("[{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver\"}]");
@@ -95,12 +97,28 @@ public class CommitFacadeTest {
         File projectBaseDir = temp.newFolder();
         facade.initGitBaseDir(projectBaseDir);
 
-        facade.writeJsonFile("[{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver\"}]");
+        facade.writeJsonFile(reporter("[{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver\"}]"));
 
         File file = new File(projectBaseDir, "gl-sast-report.json");
         Assertions.assertThat(file).exists().hasContent("[{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver\"}]");
     }
 
+    @Test
+    public void testWriteReporterJson() throws IOException {
+        GitLabPluginConfiguration gitLabPluginConfiguration = mock(GitLabPluginConfiguration.class);
+        when(gitLabPluginConfiguration.jsonMode()).thenReturn(JsonMode.SAST);
+        CommitFacade facade = new CommitFacade(gitLabPluginConfiguration);
+        File projectBaseDir = temp.newFolder();
+        facade.initGitBaseDir(projectBaseDir);
+
+        facade.writeJsonFile(reporter("[{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver\"}]"));
+
+        facade.writeJsonFile(reporter("[\"é\"]"));
+
+        File file = new File(projectBaseDir, "gl-sast-report.json");
+        Assertions.assertThat(file).exists().hasBinaryContent("[\"é\"]".getBytes(StandardCharsets.UTF_8));
+    }
+
     @Test
     public void testWriteNoneJson() throws IOException {
         GitLabPluginConfiguration gitLabPluginConfiguration = mock(GitLabPluginConfiguration.class);
@@ -109,7 +127,7 @@ public class CommitFacadeTest {
         File projectBaseDir = temp.newFolder();
         facade.initGitBaseDir(projectBaseDir);
 
-        facade.writeJsonFile("[{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver\"}]");
+        facade.writeJsonFile(reporter("[{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver\"}]"));
 
         File file = new File(projectBaseDir, "gl-code-quality-report.json");
         Assertions.assertThat(projectBaseDir.listFiles((p) -> p.getPath().endsWith(".json"))).isEmpty();
@@ -215,4 +233,13 @@ public class CommitFacadeTest {
         Assertions.assertThat(facade.getRuleLink("hello")).isEqualTo("http://test/coding_rules#rule_key=hello");
 
     }
-}
\ No newline at end of file
+
+    private static Reporter reporter(String json) throws IOException {
+        Reporter reporter = mock(Reporter.class);
+        Mockito.doAnswer(invocation -> {
+            invocation.<Writer>getArgument(0).write(json);
+            return null;
+        }).when(reporter).writeJson(Mockito.any(Writer.class));
+        return reporter;
+    }
+}
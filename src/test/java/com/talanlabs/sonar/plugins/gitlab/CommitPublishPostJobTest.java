@@ -38,6 +38,8 @@ import org.sonar.api.utils.System2;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Mockito.*;
 
@@ -151,9 +153,48 @@ public class CommitPublishPostJobTest {
 
         Mockito.verify(sonarFacade).loadQualityGate();
         Mockito.verify(reporterBuilder).build(qualityGate, issues);
+        Mockito.verify(sonarFacade).saveRuleCache();
         Mockito.verify(commitFacade).createOrUpdateSonarQubeStatus("success", "SonarQube Condition Error:0 Warning:0 Ok:0 SonarQube reported no issues");
     }
 
+    @Test
+    public void testGitLabInitWhileWaitingQualityGate() {
+        CountDownLatch qualityGateStarted = new CountDownLatch(1);
+        CountDownLatch gitLabInitialized = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            Assertions.assertThat(qualityGateStarted.await(10, TimeUnit.SECONDS)).isTrue();
+            gitLabInitialized.countDown();
+            return null;
+        }).when(commitFacade).init(any());
+
+        QualityGate qualityGate = QualityGate.newBuilder().status(QualityGate.Status.OK).conditions(Collections.emptyList()).build();
+        when(sonarFacade.loadQualityGate()).thenAnswer(invocation -> {
+            qualityGateStarted.countDown();
+            Assertions.assertThat(gitLabInitialized.await(10, TimeUnit.SECONDS)).isTrue();
+            return qualityGate;
+        });
+
+        Reporter reporter = Mockito.mock(Reporter.class);
+        when(reporter.getStatus()).thenReturn("success");
+        when(reporter.getStatusDescription()).thenReturn("SonarQube Condition Error:0 Warning:0 Ok:0 SonarQube reported no issues");
+        List<Issue> issues = Collections.emptyList();
+        when(reporterBuilder.build(qualityGate, issues)).thenReturn(reporter);
+
+        commitPublishPostJob.execute(context);
+
+        Mockito.verify(commitFacade).init(any());
+        Mockito.verify(reporterBuilder).build(qualityGate, issues);
+        Mockito.verify(commitFacade).createOrUpdateSonarQubeStatus("success", "SonarQube Condition Error:0 Warning:0 Ok:0 SonarQube reported no issues");
+    }
+
+    @Test
+    public void testGitLabInitFailed() {
+        doThrow(new IllegalStateException("GitLab unavailable")).when(commitFacade).init(any());
+
+        Assertions.assertThatThrownBy(() -> commitPublishPostJob.execute(context)).isInstanceOf(MessageException.class).hasMessage("SonarQube failed to complete the review of this commit: GitLab unavailable");
+        Mockito.verify(reporterBuilder, never()).build(any(), any());
+    }
+
     @Test
     public void testFailedPublish() {
 
@@ -0,0 +1,107 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class DiffCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testPutGet() throws IOException {
+        DiffCache diffCache = new DiffCache(temp.newFolder(), 1024 * 1024);
+
+        Map<String, PatchLines> positions = new HashMap<>();
+        positions.put("src/Foo.java", PatchUtils.getPatchLines("@@ -1,2 +1,3 @@\n line1\n+line2\n line3\n"));
+        positions.put("src/Bar.java", PatchUtils.getPatchLines(""));
+
+        Assertions.assertThat(diffCache.get(1, "abc")).isNull();
+
+        diffCache.put(1, "abc", positions);
+
+        Map<String, PatchLines> cached = diffCache.get(1, "abc");
+        Assertions.assertThat(cached).containsOnlyKeys("src/Foo.java", "src/Bar.java");
+        Assertions.assertThat(cached.get("src/Foo.java").size()).isEqualTo(1);
+        Assertions.assertThat(PatchUtilsTest.contains(cached.get("src/Foo.java"), 2, "line2")).isTrue();
+        Assertions.assertThat(PatchUtilsTest.contains(cached.get("src/Foo.java"), 2, "line3")).isFalse();
+        Assertions.assertThat(cached.get("src/Bar.java").size()).isZero();
+
+        Assertions.assertThat(diffCache.get(2, "abc")).isNull();
+        Assertions.assertThat(diffCache.get(1, "abd")).isNull();
+    }
+
+    @Test
+    public void testInvalidRevision() throws IOException {
+        File dir = temp.newFolder();
+        DiffCache diffCache = new DiffCache(dir, 1024 * 1024);
+
+        diffCache.put(1, "../abc", Collections.emptyMap());
+
+        Assertions.assertThat(diffCache.get(1, "../abc")).isNull();
+        Assertions.assertThat(dir.list()).isEmpty();
+    }
+
+    @Test
+    public void testCorruptedFile() throws IOException {
+        File dir = temp.newFolder();
+        DiffCache diffCache = new DiffCache(dir, 1024 * 1024);
+
+        diffCache.put(1, "abc", Collections.singletonMap("src/Foo.java", PatchUtils.getPatchLines("@@ -1,1 +1,1 @@\n line1\n")));
+        File file = new File(dir, "diffs/1/abc.diff");
+        Assertions.assertThat(file).isFile();
+        Files.write(file.toPath(), new byte[] {1, 2, 3});
+
+        Assertions.assertThat(diffCache.get(1, "abc")).isNull();
+        Assertions.assertThat(file).doesNotExist();
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws IOException {
+        File dir = temp.newFolder();
+        Map<String, PatchLines> positions = Collections.singletonMap("src/Foo.java", PatchUtils.getPatchLines("@@ -1,1 +1,1 @@\n line1\n"));
+
+        new DiffCache(dir, 1024 * 1024).put(1, "a", positions);
+        long fileSize = new File(dir, "diffs/1/a.diff").length();
+
+        DiffCache diffCache = new DiffCache(dir, 2 * fileSize);
+        diffCache.put(1, "b", positions);
+        Files.setLastModifiedTime(new File(dir, "diffs/1/a.diff").toPath(), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(new File(dir, "diffs/1/b.diff").toPath(), FileTime.fromMillis(2000));
+        Assertions.assertThat(diffCache.get(1, "a")).isNotNull();
+
+        diffCache.put(1, "c", positions);
+        Assertions.assertThat(new File(dir, "diffs/1/b.diff")).exists();
+        diffCache.evict();
+
+        Assertions.assertThat(new File(dir, "diffs/1/a.diff")).exists();
+        Assertions.assertThat(new File(dir, "diffs/1/b.diff")).doesNotExist();
+        Assertions.assertThat(new File(dir, "diffs/1/c.diff")).exists();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import freemarker.template.Template;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class FreemarkerTemplatesTest {
+
+    @Test
+    public void testSameTemplate() throws IOException {
+        FreemarkerTemplates freemarkerTemplates = new FreemarkerTemplates();
+        Template template = freemarkerTemplates.getTemplate("test", "Hello ${name}");
+
+        Assertions.assertThat(freemarkerTemplates.getTemplate("test", "Hello ${name}")).isSameAs(template);
+        Assertions.assertThat(freemarkerTemplates.getTemplate("test", "Bye ${name}")).isNotSameAs(template);
+        Assertions.assertThat(freemarkerTemplates.getTemplate("other", "Hello ${name}")).isNotSameAs(template).extracting(Template::getName).isEqualTo("other");
+    }
+
+    @Test
+    public void testWrongTemplate() {
+        FreemarkerTemplates freemarkerTemplates = new FreemarkerTemplates();
+        Assertions.assertThatThrownBy(() -> freemarkerTemplates.getTemplate("wrong", "<#if>")).isInstanceOf(IOException.class);
+        Assertions.assertThatThrownBy(() -> freemarkerTemplates.getTemplate("wrong", "<#if>")).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void testNotShared() throws IOException {
+        Template template = new FreemarkerTemplates().getTemplate("test", "Hello ${name}");
+
+        Assertions.assertThat(new FreemarkerTemplates().getTemplate("test", "Hello ${name}")).isNotSameAs(template);
+    }
+}
@@ -172,7 +172,7 @@ public class GetProjectV4Test {
         when(gitLabPluginConfiguration.projectId()).thenReturn("git@example.com:diaspora/diaspora-client.git");
 
         gitlab.enqueue(new MockResponse().setResponseCode(404));
-        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[{\n" +
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("{\n" +
                 "    \"id\": 123,\n" +
                 "    \"description\": null,\n" +
                 "    \"default_branch\": \"master\",\n" +
@@ -184,13 +184,16 @@ public class GetProjectV4Test {
                 "    \"name_with_namespace\": \"Diaspora / Diaspora Client\",\n" +
                 "    \"path\": \"diaspora-client\",\n" +
                 "    \"path_with_namespace\": \"diaspora/diaspora-client\"\n" +
-                "}]"));
+                "}"));
 
         gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
         gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
 
         CommitFacade facade = new CommitFacade(gitLabPluginConfiguration);
         facade.init(gitBasedir);
+
+        Assertions.assertThat(gitlab.takeRequest().getPath()).startsWith("/api/v4/projects/git");
+        Assertions.assertThat(gitlab.takeRequest().getPath()).startsWith("/api/v4/projects/diaspora").endsWith("diaspora-client");
     }
 
     @Test
@@ -200,7 +203,7 @@ public class GetProjectV4Test {
         when(gitLabPluginConfiguration.projectId()).thenReturn("http://example.com/diaspora/diaspora-client.git");
 
         gitlab.enqueue(new MockResponse().setResponseCode(404));
-        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[{\n" +
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("{\n" +
                 "    \"id\": 123,\n" +
                 "    \"description\": null,\n" +
                 "    \"default_branch\": \"master\",\n" +
@@ -212,7 +215,7 @@ public class GetProjectV4Test {
                 "    \"name_with_namespace\": \"Diaspora / Diaspora Client\",\n" +
                 "    \"path\": \"diaspora-client\",\n" +
                 "    \"path_with_namespace\": \"diaspora/diaspora-client\"\n" +
-                "}]"));
+                "}"));
 
         gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
         gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
@@ -228,7 +231,7 @@ public class GetProjectV4Test {
         when(gitLabPluginConfiguration.projectId()).thenReturn("http://example.com/diaspora/diaspora-client");
 
         gitlab.enqueue(new MockResponse().setResponseCode(404));
-        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[{\n" +
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("{\n" +
                 "    \"id\": 123,\n" +
                 "    \"description\": null,\n" +
                 "    \"default_branch\": \"master\",\n" +
@@ -240,7 +243,7 @@ public class GetProjectV4Test {
                 "    \"name_with_namespace\": \"Diaspora / Diaspora Client\",\n" +
                 "    \"path\": \"diaspora-client\",\n" +
                 "    \"path_with_namespace\": \"diaspora/diaspora-client\"\n" +
-                "}]"));
+                "}"));
 
         gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
         gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
@@ -303,6 +306,42 @@ public class GetProjectV4Test {
 
         CommitFacade facade = new CommitFacade(gitLabPluginConfiguration);
         facade.init(gitBasedir);
+
+        Assertions.assertThat(gitlab.takeRequest().getPath()).startsWith("/api/v4/projects/Diaspora");
+        Assertions.assertThat(gitlab.takeRequest().getPath()).startsWith("/api/v4/projects?search=Diaspora");
+    }
+
+    @Test
+    public void testProjectIdCached() throws Exception {
+        File gitBasedir = temp.newFolder();
+
+        when(gitLabPluginConfiguration.projectId()).thenReturn("Diaspora / Diaspora Client");
+        when(gitLabPluginConfiguration.persistentCacheDir()).thenReturn(temp.newFolder());
+
+        String project = "{\n" +
+                "    \"id\": 123,\n" +
+                "    \"web_url\": \"http://example.com/diaspora/diaspora-client\",\n" +
+                "    \"name_with_namespace\": \"Diaspora / Diaspora Client\",\n" +
+                "    \"path_with_namespace\": \"diaspora/diaspora-client\"\n" +
+                "}";
+        gitlab.enqueue(new MockResponse().setResponseCode(404));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[" + project + "]"));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+
+        new CommitFacade(gitLabPluginConfiguration).init(gitBasedir);
+        Assertions.assertThat(gitlab.getRequestCount()).isEqualTo(4);
+
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody(project));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+
+        new CommitFacade(gitLabPluginConfiguration).init(gitBasedir);
+        Assertions.assertThat(gitlab.getRequestCount()).isEqualTo(7);
+        for (int i = 0; i < 4; i++) {
+            gitlab.takeRequest();
+        }
+        Assertions.assertThat(gitlab.takeRequest().getPath()).isEqualTo("/api/v4/projects/123");
     }
 
     @Test
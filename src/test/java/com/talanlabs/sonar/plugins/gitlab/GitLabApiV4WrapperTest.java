@@ -19,16 +19,26 @@ package com.talanlabs.sonar.plugins.gitlab;
 import com.talanlabs.gitlab.api.Paged;
 import com.talanlabs.gitlab.api.v4.GitLabAPI;
 import com.talanlabs.gitlab.api.v4.GitlabMergeRequestDiff;
+import com.talanlabs.gitlab.api.v4.models.commits.GitLabCommit;
+import com.talanlabs.gitlab.api.v4.models.commits.GitLabCommitComments;
+import com.talanlabs.gitlab.api.v4.models.commits.GitLabCommitDiff;
 import com.talanlabs.gitlab.api.v4.models.projects.GitLabProject;
+import com.talanlabs.gitlab.api.v4.models.users.GitLabUser;
 import com.talanlabs.gitlab.api.v4.services.GitLabAPICommits;
 import com.talanlabs.gitlab.api.v4.services.GitLabAPIMergeRequestDiff;
 import com.talanlabs.gitlab.api.v4.services.GitLabAPIMergeRequestDiscussion;
 import com.talanlabs.sonar.plugins.gitlab.api.GitLabAPIMergeRequestDiscussionExt;
+import com.talanlabs.sonar.plugins.gitlab.api.GitlabDiscussionStatus;
+import com.talanlabs.sonar.plugins.gitlab.api.GitlabNote;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
+import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.UUID;
@@ -39,6 +49,9 @@ import static org.mockito.Mockito.*;
 
 public class GitLabApiV4WrapperTest {
 
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
     @Test
     public void testGetGitLabUrl() {
         GitLabPluginConfiguration gitLabPluginConfiguration = mock(GitLabPluginConfiguration.class);
@@ -261,6 +274,265 @@ public class GitLabApiV4WrapperTest {
         verify(mergeRequestDiscussion).createDiscussion(Mockito.eq(projectId), Mockito.eq(mrIid), any());
     }
 
+    @Test
+    public void testCreateReviewDiscussionLoadMergeRequestDiffOnce() throws Exception {
+        Integer projectId = 1;
+        Integer mrIid = 1;
+
+        GitLabPluginConfiguration gitLabPluginConfiguration = mock(GitLabPluginConfiguration.class);
+        when(gitLabPluginConfiguration.mergeRequestIid()).thenReturn(mrIid);
+        when(gitLabPluginConfiguration.isMergeRequestDiscussionEnabled()).thenReturn(true);
+
+        GitLabApiV4Wrapper facade = new GitLabApiV4Wrapper(gitLabPluginConfiguration);
+
+        GitLabAPI gitLabAPI = mock(GitLabAPI.class);
+        facade.setGitLabAPI(gitLabAPI);
+
+        Paged paged = mock(Paged.class);
+
+        GitLabAPIMergeRequestDiff gitLabAPIMergeRequestDiff = mock(GitLabAPIMergeRequestDiff.class);
+        when(gitLabAPIMergeRequestDiff.getMergeRequestDiff(projectId, mrIid)).thenReturn(paged);
+
+        GitlabMergeRequestDiff mergeRequestDiff = gitlabMergeRequestDiff(mrIid);
+
+        when(gitLabAPI.getGitLabAPIMergeRequestDiff()).thenReturn(gitLabAPIMergeRequestDiff);
+        when(paged.getResults()).thenReturn(Collections.singletonList(mergeRequestDiff));
+
+        GitLabProject gitLabProject = mock(GitLabProject.class);
+        when(gitLabProject.getId()).thenReturn(projectId);
+        facade.setGitLabProject(gitLabProject);
+
+        GitLabAPIMergeRequestDiscussionExt gitLabAPIExt = mock(GitLabAPIMergeRequestDiscussionExt.class);
+        facade.setGitLabAPIExt(gitLabAPIExt);
+
+        when(gitLabAPIExt.hasDiscussion(anyInt(), anyInt(), anyString(), anyInt(), anyString(), anyString(), anyString())).thenReturn(false);
+
+        GitLabAPIMergeRequestDiscussion mergeRequestDiscussion = mock(GitLabAPIMergeRequestDiscussion.class);
+        when(gitLabAPI.getGitLabAPIMergeRequestDiscussion()).thenReturn(mergeRequestDiscussion);
+
+        facade.createOrUpdateReviewComment(null, "src/main/Foo.java", 5, "nothing");
+        facade.createOrUpdateReviewComment(null, "src/main/Foo.java", 6, "other");
+        facade.createOrUpdateReviewComment(null, "src/main/Bar.java", 1, "nothing");
+
+        verify(gitLabAPIMergeRequestDiff, times(1)).getMergeRequestDiff(projectId, mrIid);
+        verify(mergeRequestDiscussion, times(3)).createDiscussion(Mockito.eq(projectId), Mockito.eq(mrIid), any());
+    }
+
+    @Test
+    public void testPrefetchRevisionsInParallel() throws IOException {
+        GitLabPluginConfiguration gitLabPluginConfiguration = mock(GitLabPluginConfiguration.class);
+        when(gitLabPluginConfiguration.commitSHA()).thenReturn(Arrays.asList("1", "2", "3"));
+        when(gitLabPluginConfiguration.prefetchParallelism()).thenReturn(3);
+
+        GitLabApiV4Wrapper facade = new GitLabApiV4Wrapper(gitLabPluginConfiguration);
+
+        GitLabAPI gitLabAPI = mock(GitLabAPI.class);
+        facade.setGitLabAPI(gitLabAPI);
+
+        GitLabAPICommits gitLabAPICommits = mock(GitLabAPICommits.class);
+        when(gitLabAPI.getGitLabAPICommits()).thenReturn(gitLabAPICommits);
+
+        for (String revision : Arrays.asList("1", "2", "3")) {
+            GitLabCommitComments comment = mock(GitLabCommitComments.class);
+            when(comment.getPath()).thenReturn("src/Foo" + revision + ".java");
+            when(comment.getLine()).thenReturn(1);
+            when(comment.getNote()).thenReturn("note" + revision);
+            Paged commentsPaged = mock(Paged.class);
+            when(commentsPaged.getResults()).thenReturn(Collections.singletonList(comment));
+            when(gitLabAPICommits.getCommitComments(eq(1), eq(revision), any())).thenReturn(commentsPaged);
+
+            GitLabCommitDiff diff = mock(GitLabCommitDiff.class);
+            when(diff.getNewPath()).thenReturn("src/Foo" + revision + ".java");
+            when(diff.getDiff()).thenReturn("@@ -0,0 +1,1 @@\n+line" + revision + "\n");
+            Paged diffsPaged = mock(Paged.class);
+            when(diffsPaged.getResults()).thenReturn(Collections.singletonList(diff));
+            when(gitLabAPICommits.getCommitDiffs(eq(1), eq(revision), any())).thenReturn(diffsPaged);
+        }
+
+        GitLabProject gitLabProject = mock(GitLabProject.class);
+        when(gitLabProject.getId()).thenReturn(1);
+        facade.setGitLabProject(gitLabProject);
+
+        facade.prefetchRevisions(Arrays.asList("1", "2", "3"));
+
+        assertThat(facade.hasFile("src/Foo1.java")).isTrue();
+        assertThat(facade.hasFile("src/Foo3.java")).isTrue();
+        assertThat(facade.hasFile("src/Bar.java")).isFalse();
+        assertThat(facade.hasSameCommitCommentsForFile("2", "src/Foo2.java", 1, "note2")).isTrue();
+        assertThat(facade.hasSameCommitCommentsForFile("2", "src/Foo2.java", 1, "note1")).isFalse();
+    }
+
+    @Test
+    public void testPrefetchRevisionsFromDiffCache() throws IOException {
+        GitLabPluginConfiguration gitLabPluginConfiguration = mock(GitLabPluginConfiguration.class);
+
+        GitLabApiV4Wrapper facade = new GitLabApiV4Wrapper(gitLabPluginConfiguration);
+
+        GitLabAPI gitLabAPI = mock(GitLabAPI.class);
+        facade.setGitLabAPI(gitLabAPI);
+
+        GitLabAPICommits gitLabAPICommits = mock(GitLabAPICommits.class);
+        when(gitLabAPI.getGitLabAPICommits()).thenReturn(gitLabAPICommits);
+
+        Paged commentsPaged = mock(Paged.class);
+        when(gitLabAPICommits.getCommitComments(eq(1), eq("1"), any())).thenReturn(commentsPaged);
+        GitLabCommitDiff diff = mock(GitLabCommitDiff.class);
+        when(diff.getNewPath()).thenReturn("src/Foo.java");
+        when(diff.getDiff()).thenReturn("@@ -0,0 +1,1 @@\n+line\n");
+        Paged diffsPaged = mock(Paged.class);
+        when(diffsPaged.getResults()).thenReturn(Collections.singletonList(diff));
+        when(gitLabAPICommits.getCommitDiffs(eq(1), eq("1"), any())).thenReturn(diffsPaged);
+
+        GitLabProject gitLabProject = mock(GitLabProject.class);
+        when(gitLabProject.getId()).thenReturn(1);
+        facade.setGitLabProject(gitLabProject);
+
+        File cacheDir = temp.newFolder();
+        facade.setDiffCache(new DiffCache(cacheDir, 1024 * 1024));
+        facade.prefetchRevisions(Collections.singletonList("1"));
+
+        facade.setDiffCache(new DiffCache(cacheDir, 1024 * 1024));
+        facade.prefetchRevisions(Collections.singletonList("1"));
+
+        verify(gitLabAPICommits, times(1)).getCommitDiffs(eq(1), eq("1"), any());
+        assertThat(facade.hasFile("src/Foo.java")).isTrue();
+        assertThat(facade.hasFile("src/Bar.java")).isFalse();
+    }
+
+    @Test
+    public void testGetUsernameForRevisionMemoized() throws IOException {
+        GitLabPluginConfiguration gitLabPluginConfiguration = mock(GitLabPluginConfiguration.class);
+        when(gitLabPluginConfiguration.url()).thenReturn("https://gitlab.com");
+
+        GitLabAPI gitLabAPI = mock(GitLabAPI.class, RETURNS_DEEP_STUBS);
+        for (String revision : Arrays.asList("1", "2", "3")) {
+            GitLabCommit commit = mock(GitLabCommit.class);
+            when(commit.getAuthorEmail()).thenReturn("john@example.com");
+            when(gitLabAPI.getGitLabAPICommits().getCommit(1, revision)).thenReturn(commit);
+        }
+        GitLabUser user = mock(GitLabUser.class);
+        when(user.getUsername()).thenReturn("john_smith");
+        Paged usersPaged = mock(Paged.class);
+        when(usersPaged.getResults()).thenReturn(Collections.singletonList(user));
+        when(gitLabAPI.getGitLabAPIUsers().getUsers(eq("john@example.com"), any())).thenReturn(usersPaged);
+
+        GitLabProject gitLabProject = mock(GitLabProject.class);
+        when(gitLabProject.getId()).thenReturn(1);
+
+        File cacheDir = temp.newFolder();
+        GitLabApiV4Wrapper facade = new GitLabApiV4Wrapper(gitLabPluginConfiguration);
+        facade.setGitLabAPI(gitLabAPI);
+        facade.setGitLabProject(gitLabProject);
+        facade.setUsernameCache(new PersistentValueCache(cacheDir, "users", 60 * 60 * 1000));
+
+        assertThat(facade.getUsernameForRevision("1")).isEqualTo("john_smith");
+        assertThat(facade.getUsernameForRevision("1")).isEqualTo("john_smith");
+        assertThat(facade.getUsernameForRevision("2")).isEqualTo("john_smith");
+
+        verify(gitLabAPI.getGitLabAPICommits(), times(1)).getCommit(1, "1");
+        verify(gitLabAPI.getGitLabAPIUsers(), times(1)).getUsers(eq("john@example.com"), any());
+
+        // Next analysis
+        GitLabApiV4Wrapper other = new GitLabApiV4Wrapper(gitLabPluginConfiguration);
+        other.setGitLabAPI(gitLabAPI);
+        other.setGitLabProject(gitLabProject);
+        other.setUsernameCache(new PersistentValueCache(cacheDir, "users", 60 * 60 * 1000));
+
+        assertThat(other.getUsernameForRevision("3")).isEqualTo("john_smith");
+        verify(gitLabAPI.getGitLabAPIUsers(), times(1)).getUsers(eq("john@example.com"), any());
+    }
+
+    @Test
+    public void testGlobalCommentUpsertMergeRequest() throws IOException {
+        Integer projectId = 1;
+        Integer mrIid = 1;
+
+        GitLabPluginConfiguration gitLabPluginConfiguration = mock(GitLabPluginConfiguration.class);
+        when(gitLabPluginConfiguration.mergeRequestIid()).thenReturn(mrIid);
+        when(gitLabPluginConfiguration.isMergeRequestDiscussionEnabled()).thenReturn(true);
+        when(gitLabPluginConfiguration.globalCommentUpsert()).thenReturn(true);
+        when(gitLabPluginConfiguration.projectKey()).thenReturn("com.talanlabs:example");
+
+        GitLabApiV4Wrapper facade = new GitLabApiV4Wrapper(gitLabPluginConfiguration);
+
+        GitLabAPI gitLabAPI = mock(GitLabAPI.class);
+        facade.setGitLabAPI(gitLabAPI);
+
+        GitLabProject gitLabProject = mock(GitLabProject.class);
+        when(gitLabProject.getId()).thenReturn(projectId);
+        facade.setGitLabProject(gitLabProject);
+
+        GitlabNote note = new GitlabNote();
+        note.setId(5);
+        note.setBody(CommentMarkers.mark("old", "com.talanlabs:example", CommentMarkers.GLOBAL_FINGERPRINT));
+        GitlabDiscussionStatus discussion = new GitlabDiscussionStatus();
+        discussion.setId("d1");
+        discussion.setNotes(Collections.singletonList(note));
+        GitlabNote otherProjectNote = new GitlabNote();
+        otherProjectNote.setId(4);
+        otherProjectNote.setBody(CommentMarkers.mark("other", "com.talanlabs:other", CommentMarkers.GLOBAL_FINGERPRINT));
+        GitlabDiscussionStatus otherProjectDiscussion = new GitlabDiscussionStatus();
+        otherProjectDiscussion.setId("d0");
+        otherProjectDiscussion.setNotes(Collections.singletonList(otherProjectNote));
+
+        GitLabAPIMergeRequestDiscussionExt gitLabAPIExt = mock(GitLabAPIMergeRequestDiscussionExt.class);
+        when(gitLabAPIExt.getDiscussions(projectId, mrIid)).thenReturn(Arrays.asList(otherProjectDiscussion, discussion));
+        facade.setGitLabAPIExt(gitLabAPIExt);
+
+        GitLabAPIMergeRequestDiscussion mergeRequestDiscussion = mock(GitLabAPIMergeRequestDiscussion.class);
+        when(gitLabAPI.getGitLabAPIMergeRequestDiscussion()).thenReturn(mergeRequestDiscussion);
+
+        facade.addGlobalComment("old");
+        facade.addGlobalComment("new");
+
+        verify(gitLabAPIExt).updateNote(projectId, mrIid, "d1", 5, CommentMarkers.mark("new", "com.talanlabs:example", CommentMarkers.GLOBAL_FINGERPRINT));
+        verify(gitLabAPIExt, never()).updateNote(projectId, mrIid, "d1", 5, CommentMarkers.mark("old", "com.talanlabs:example", CommentMarkers.GLOBAL_FINGERPRINT));
+        verify(gitLabAPIExt, never()).updateNote(eq(projectId), eq(mrIid), eq("d0"), anyInt(), anyString());
+        verify(mergeRequestDiscussion, never()).createDiscussion(anyInt(), anyInt(), any());
+
+        when(gitLabAPIExt.getDiscussions(projectId, mrIid)).thenReturn(Collections.singletonList(otherProjectDiscussion));
+        facade.addGlobalComment("new");
+
+        verify(mergeRequestDiscussion).createDiscussion(Mockito.eq(projectId), Mockito.eq(mrIid), any());
+        verify(gitLabAPIExt).invalidate(projectId, mrIid);
+    }
+
+    @Test
+    public void testGlobalCommentUpsertCommit() throws IOException {
+        GitLabPluginConfiguration gitLabPluginConfiguration = mock(GitLabPluginConfiguration.class);
+        when(gitLabPluginConfiguration.commitSHA()).thenReturn(Collections.singletonList("1"));
+        when(gitLabPluginConfiguration.globalCommentUpsert()).thenReturn(true);
+        when(gitLabPluginConfiguration.projectKey()).thenReturn("com.talanlabs:example");
+
+        GitLabApiV4Wrapper facade = new GitLabApiV4Wrapper(gitLabPluginConfiguration);
+
+        GitLabAPI gitLabAPI = mock(GitLabAPI.class);
+        facade.setGitLabAPI(gitLabAPI);
+
+        GitLabAPICommits gitLabAPICommits = mock(GitLabAPICommits.class);
+        when(gitLabAPI.getGitLabAPICommits()).thenReturn(gitLabAPICommits);
+
+        GitLabCommitComments comment = mock(GitLabCommitComments.class);
+        when(comment.getNote()).thenReturn(CommentMarkers.mark("old", "com.talanlabs:example", CommentMarkers.GLOBAL_FINGERPRINT));
+        Paged commentsPaged = mock(Paged.class);
+        when(commentsPaged.getResults()).thenReturn(Collections.singletonList(comment));
+        when(gitLabAPICommits.getCommitComments(eq(1), eq("1"), any())).thenReturn(commentsPaged);
+        Paged diffsPaged = mock(Paged.class);
+        when(gitLabAPICommits.getCommitDiffs(eq(1), eq("1"), any())).thenReturn(diffsPaged);
+
+        GitLabProject gitLabProject = mock(GitLabProject.class);
+        when(gitLabProject.getId()).thenReturn(1);
+        facade.setGitLabProject(gitLabProject);
+
+        facade.prefetchRevisions(Collections.singletonList("1"));
+
+        facade.addGlobalComment("old");
+        verify(gitLabAPICommits, never()).postCommitComments(anyInt(), anyString(), anyString(), any(), any(), any());
+
+        facade.addGlobalComment("new");
+        verify(gitLabAPICommits).postCommitComments(1, "1", CommentMarkers.mark("new", "com.talanlabs:example", CommentMarkers.GLOBAL_FINGERPRINT), null, null, null);
+    }
+
     private GitlabMergeRequestDiff gitlabMergeRequestDiff(int mrIid) {
         String randomCommitSha = UUID.randomUUID().toString();
         GitlabMergeRequestDiff gitlabMergeRequestDiff = new GitlabMergeRequestDiff();
@@ -31,6 +31,7 @@ import org.sonar.api.config.PropertyDefinitions;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.System2;
 
+import java.io.File;
 import java.net.Proxy;
 
 public class GitLabPluginConfigurationTest {
@@ -189,6 +190,61 @@ public class GitLabPluginConfigurationTest {
         Assertions.assertThat(config.statusName()).isEqualTo("sonarqube");
         settings.setProperty(GitLabPlugin.GITLAB_STATUS_NAME, "sonar-analysis-1");
         Assertions.assertThat(config.statusName()).isEqualTo("sonar-analysis-1");
+
+        Assertions.assertThat(config.sonarQueryParallelism()).isEqualTo(1);
+        settings.setProperty(GitLabPlugin.GITLAB_SONAR_QUERY_PARALLELISM, "4");
+        Assertions.assertThat(config.sonarQueryParallelism()).isEqualTo(4);
+
+        Assertions.assertThat(config.prefetchParallelism()).isEqualTo(1);
+        settings.setProperty(GitLabPlugin.GITLAB_PREFETCH_PARALLELISM, "8");
+        Assertions.assertThat(config.prefetchParallelism()).isEqualTo(8);
+
+        Assertions.assertThat(config.inlineCommentParallelism()).isEqualTo(1);
+        settings.setProperty(GitLabPlugin.GITLAB_INLINE_COMMENT_PARALLELISM, "4");
+        Assertions.assertThat(config.inlineCommentParallelism()).isEqualTo(4);
+
+        Assertions.assertThat(config.inlineReconciliation()).isFalse();
+        settings.setProperty(GitLabPlugin.GITLAB_INLINE_RECONCILIATION, "true");
+        Assertions.assertThat(config.inlineReconciliation()).isTrue();
+
+        Assertions.assertThat(config.projectKey()).isNull();
+        settings.setProperty(CoreProperties.PROJECT_KEY_PROPERTY, "com.talanlabs:example");
+        Assertions.assertThat(config.projectKey()).isEqualTo("com.talanlabs:example");
+
+        Assertions.assertThat(config.globalCommentUpsert()).isFalse();
+        settings.setProperty(GitLabPlugin.GITLAB_GLOBAL_COMMENT_UPSERT, "true");
+        Assertions.assertThat(config.globalCommentUpsert()).isTrue();
+
+        Assertions.assertThat(config.persistentCacheDir()).isNull();
+        settings.setProperty(GitLabPlugin.GITLAB_PERSISTENT_CACHE, "true");
+        Assertions.assertThat(config.persistentCacheDir()).isEqualTo(new File(new File(System.getProperty("user.home"), ".sonar"), "gitlab-cache"));
+        settings.setProperty("sonar.userHome", "home");
+        Assertions.assertThat(config.persistentCacheDir()).isEqualTo(new File("home", "gitlab-cache"));
+
+        settings.setProperty(GitLabPlugin.GITLAB_CACHE_DIR, "/cache");
+        Assertions.assertThat(config.persistentCacheDir()).isEqualTo(new File("/cache"));
+
+        Assertions.assertThat(config.cacheMaxSize()).isEqualTo(256L * 1024 * 1024);
+        settings.setProperty(GitLabPlugin.GITLAB_CACHE_MAX_SIZE, "1");
+        Assertions.assertThat(config.cacheMaxSize()).isEqualTo(1024L * 1024);
+
+        Assertions.assertThat(config.ruleCacheTtl()).isEqualTo(24L * 60 * 60 * 1000);
+        settings.setProperty(GitLabPlugin.GITLAB_RULE_CACHE_TTL, "1");
+        Assertions.assertThat(config.ruleCacheTtl()).isEqualTo(60L * 60 * 1000);
+
+        Assertions.assertThat(config.queryTimeout()).isEqualTo(10L * 2000);
+        settings.setProperty(GitLabPlugin.GITLAB_QUERY_WAIT, "10");
+        Assertions.assertThat(config.queryTimeout()).isEqualTo(10L * 10);
+        settings.setProperty(GitLabPlugin.GITLAB_QUERY_TIMEOUT, "120000");
+        Assertions.assertThat(config.queryTimeout()).isEqualTo(120000L);
+
+        Assertions.assertThat(config.httpClient()).isFalse();
+        settings.setProperty(GitLabPlugin.GITLAB_HTTP_CLIENT, true);
+        Assertions.assertThat(config.httpClient()).isTrue();
+
+        Assertions.assertThat(config.userCacheTtl()).isEqualTo(24L * 60 * 60 * 1000);
+        settings.setProperty(GitLabPlugin.GITLAB_USER_CACHE_TTL, "2");
+        Assertions.assertThat(config.userCacheTtl()).isEqualTo(2L * 60 * 60 * 1000);
     }
 
     @Test
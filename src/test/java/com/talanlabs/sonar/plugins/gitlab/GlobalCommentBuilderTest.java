@@ -53,7 +53,7 @@ public class GlobalCommentBuilderTest {
 
     @Test
     public void testNoIssues() {
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, new Reporter(config), new MarkDownUtils()).buildForMarkdown())
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, new Reporter(config), new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown())
                 .isEqualTo("SonarQube analysis reported no issues.\n");
     }
 
@@ -64,7 +64,7 @@ public class GlobalCommentBuilderTest {
         Reporter reporter = new Reporter(config);
         reporter.process(Utils.newIssue("component", null, null, Severity.INFO, true, "Issue", "rule"), null, null, GITLAB_URL, "file", "http://myserver/coding_rules#rule_key=repo%3Arule", true);
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown())
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown())
                 .isEqualTo("SonarQube analysis reported 1 issue\n" + "* :information_source: 1 info\n" + "\nWatch the comments in this conversation to review them.\n");
     }
 
@@ -75,7 +75,7 @@ public class GlobalCommentBuilderTest {
         Reporter reporter = new Reporter(config);
         reporter.process(Utils.newIssue("component0", null, null, Severity.INFO, true, "Issue0", "rule0"), null, null, null, "file", "http://myserver/coding_rules#rule_key=repo%3Arule0", false);
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 "SonarQube analysis reported 1 issue\n" + "* :information_source: 1 info\n" + "\n"
                         + "Note: The following issues were found on lines that were not modified in the commit. Because these issues can't be reported as line comments, they are summarized here:\n\n"
                         + "1. :information_source: Issue0 (component0) [:blue_book:](http://myserver/coding_rules#rule_key=repo%3Arule0)\n");
@@ -92,7 +92,7 @@ public class GlobalCommentBuilderTest {
         reporter.process(Utils.newIssue("component", null, null, Severity.CRITICAL, true, "Issue", "rule"), null, null, GITLAB_URL, "file", "http://myserver/coding_rules#rule_key=repo%3Arule", true);
         reporter.process(Utils.newIssue("component", null, null, Severity.BLOCKER, true, "Issue", "rule"), null, null, GITLAB_URL, "file", "http://myserver/coding_rules#rule_key=repo%3Arule", true);
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 "SonarQube analysis reported 5 issues\n" + "* :no_entry: 1 blocker\n" + "* :no_entry_sign: 1 critical\n" + "* :warning: 1 major\n" + "* :arrow_down_small: 1 minor\n"
                         + "* :information_source: 1 info\n" + "\n" + "Watch the comments in this conversation to review them.\n");
     }
@@ -110,7 +110,7 @@ public class GlobalCommentBuilderTest {
         reporter.process(Utils.newIssue("component", null, null, Severity.BLOCKER, true, "Issue 4", "rule4"), null, null, GITLAB_URL, "file", "http://myserver/coding_rules#rule_key=repo%3Arule4",
                 true);
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 "SonarQube analysis reported 5 issues\n" + "* :no_entry: 1 blocker\n" + "* :no_entry_sign: 1 critical\n" + "* :warning: 1 major\n" + "* :arrow_down_small: 1 minor\n"
                         + "* :information_source: 1 info\n" + "\n" + "Watch the comments in this conversation to review them.\n" + "\n" + "#### 2 extra issues\n" + "\n"
                         + "Note: The following issues were found on lines that were not modified in the commit. Because these issues can't be reported as line comments, they are summarized here:\n\n"
@@ -131,7 +131,7 @@ public class GlobalCommentBuilderTest {
         reporter.process(Utils.newIssue("component", null, null, Severity.BLOCKER, true, "Issue 4", "rule4"), null, null, GITLAB_URL, "file", "http://myserver/coding_rules#rule_key=repo%3Arule4",
                 false);
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 "SonarQube analysis reported 5 issues\n" + "* :no_entry: 1 blocker\n" + "* :no_entry_sign: 1 critical\n" + "* :warning: 1 major\n" + "* :arrow_down_small: 1 minor\n"
                         + "* :information_source: 1 info\n" + "\n" + "1. :no_entry: [Issue 4](https://gitlab.com/test/test) [:blue_book:](http://myserver/coding_rules#rule_key=repo%3Arule4)\n"
                         + "1. :no_entry_sign: [Issue 3](https://gitlab.com/test/test) [:blue_book:](http://myserver/coding_rules#rule_key=repo%3Arule3)\n"
@@ -154,7 +154,7 @@ public class GlobalCommentBuilderTest {
         reporter.process(Utils.newIssue("component", null, null, Severity.BLOCKER, true, "Issue 4", "rule4"), null, null, GITLAB_URL, "file", "http://myserver/coding_rules#rule_key=repo%3Arule4",
                 false);
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 "SonarQube analysis reported 5 issues\n" + "* :no_entry: 1 blocker\n" + "* :no_entry_sign: 1 critical\n" + "* :warning: 1 major\n" + "* :arrow_down_small: 1 minor\n"
                         + "* :information_source: 1 info\n" + "\n" + "#### Top 4 issues\n" + "\n"
                         + "1. :no_entry: [Issue 4](https://gitlab.com/test/test) [:blue_book:](http://myserver/coding_rules#rule_key=repo%3Arule4)\n"
@@ -173,7 +173,7 @@ public class GlobalCommentBuilderTest {
                     "http://myserver/coding_rules#rule_key=repo%3Arule" + i, false);
         }
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 "SonarQube analysis reported 17 issues\n" + "* :warning: 17 major\n" + "\n" + "#### Top 10 extra issues\n" + "\n"
                         + "Note: The following issues were found on lines that were not modified in the commit. Because these issues can't be reported as line comments, they are summarized here:\n"
                         + "\n" + "1. :warning: [Issue number:0](https://gitlab.com/test/test/File.java#L0) [:blue_book:](http://myserver/coding_rules#rule_key=repo%3Arule0)\n"
@@ -198,7 +198,7 @@ public class GlobalCommentBuilderTest {
                     "http://myserver/coding_rules#rule_key=repo%3Arule" + i, false);
         }
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 "SonarQube analysis reported 17 issues\n" + "* :warning: 17 major\n" + "\n" + "#### Top 10 issues\n" + "\n"
                         + "1. :warning: [Issue number:0](https://gitlab.com/test/test/File.java#L0) [:blue_book:](http://myserver/coding_rules#rule_key=repo%3Arule0)\n"
                         + "1. :warning: [Issue number:1](https://gitlab.com/test/test/File.java#L1) [:blue_book:](http://myserver/coding_rules#rule_key=repo%3Arule1)\n"
@@ -224,7 +224,7 @@ public class GlobalCommentBuilderTest {
 
         Reporter reporter = new Reporter(config);
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown())
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown())
                 .isEqualTo("123\n" + "123456789\n" + "master\n" + "https://gitlab.com\n" + "10\n" + "0\n" + "0\n" + "-1\n" + "-1\n" + "-1\n" + "false\n" + "false\n" + "false\n" + "123456789");
     }
 
@@ -238,7 +238,7 @@ public class GlobalCommentBuilderTest {
                     "http://myserver/coding_rules#rule_key=repo%3Arule", false);
         }
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 "17\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n"
                         + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n");
     }
@@ -254,7 +254,7 @@ public class GlobalCommentBuilderTest {
                     GITLAB_URL + "/File.java#L" + i, "file", "http://myserver/coding_rules#rule_key=repo%3Arule", false);
         }
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 "9\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "9\n" + "component\n"
                         + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n");
     }
@@ -270,7 +270,7 @@ public class GlobalCommentBuilderTest {
                     "http://myserver/coding_rules#rule_key=repo%3Arule", false);
         }
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 "0\n" + "17\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n"
                         + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n");
     }
@@ -286,7 +286,7 @@ public class GlobalCommentBuilderTest {
                     GITLAB_URL + "/File.java#L" + i, "file", "http://myserver/coding_rules#rule_key=repo%3Arule", false);
         }
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown())
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown())
                 .isEqualTo("0\n" + "9\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n" + "component\n");
     }
 
@@ -301,7 +301,7 @@ public class GlobalCommentBuilderTest {
                     "http://myserver/coding_rules#rule_key=repo%3Arule" + i, false);
         }
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, null, reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 ":no_entry:\n" + "![BLOCKER](https://github.com/gabrie-allaigre/sonar-gitlab-plugin/raw/master/images/severity-blocker.png)\n"
                         + "http://myserver/coding_rules#rule_key=repo%253Arule0\n"
                         + ":warning: [Issue number:0](https://gitlab.com/test/test/File.java#L0) [:blue_book:](http://myserver/coding_rules#rule_key=repo%3Arule0)\n"
@@ -327,14 +327,14 @@ public class GlobalCommentBuilderTest {
     public void testTemplateIssueFail() {
         settings.setProperty(GitLabPlugin.GITLAB_GLOBAL_TEMPLATE, "<#toto>");
 
-        Assertions.assertThatThrownBy(() -> new GlobalCommentBuilder(config, null, null, new Reporter(config), new MarkDownUtils()).buildForMarkdown())
+        Assertions.assertThatThrownBy(() -> new GlobalCommentBuilder(config, null, null, new Reporter(config), new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown())
                 .isInstanceOf(MessageException.class);
     }
 
     @Test
     public void testQualityGateNoIssues() {
         Assertions.assertThat(
-                new GlobalCommentBuilder(config, null, QualityGate.newBuilder().status(QualityGate.Status.OK).conditions(Collections.emptyList()).build(), new Reporter(config), new MarkDownUtils()).buildForMarkdown())
+                new GlobalCommentBuilder(config, null, QualityGate.newBuilder().status(QualityGate.Status.OK).conditions(Collections.emptyList()).build(), new Reporter(config), new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown())
                 .isEqualTo("SonarQube analysis indicates that quality gate is passed.\n" + "\n" + "SonarQube analysis reported no issues.\n");
     }
 
@@ -352,7 +352,7 @@ public class GlobalCommentBuilderTest {
         conditions.add(QualityGate.Condition.newBuilder().status(QualityGate.Status.WARN).metricKey("toto").metricName("Toto4").actual("14").symbol(">").warning("20").error("30").build());
         conditions.add(QualityGate.Condition.newBuilder().status(QualityGate.Status.WARN).metricKey("toto").metricName("Toto5").actual("15").symbol("=").warning("10").error("").build());
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, QualityGate.newBuilder().status(QualityGate.Status.WARN).conditions(conditions).build(), reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, QualityGate.newBuilder().status(QualityGate.Status.WARN).conditions(conditions).build(), reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 "SonarQube analysis indicates that quality gate is warning.\n" + "* Toto1 is passed: Actual value 10\n" + "* Toto2 is passed: Actual value 11\n"
                         + "* Toto3 is passed: Actual value 13\n" + "* Toto4 is warning: Actual value 14 > 20\n" + "* Toto5 is warning: Actual value 15 = 10\n" + "\n"
                         + "SonarQube analysis reported 1 issue\n" + "* :information_source: 1 info\n" + "\n" + "Watch the comments in this conversation to review them.\n");
@@ -376,7 +376,7 @@ public class GlobalCommentBuilderTest {
         conditions.add(QualityGate.Condition.newBuilder().status(QualityGate.Status.WARN).metricKey("toto").metricName("Toto4").actual("14").symbol(">").warning("20").error("30").build());
         conditions.add(QualityGate.Condition.newBuilder().status(QualityGate.Status.WARN).metricKey("toto").metricName("Toto5").actual("15").symbol("=").warning("10").error("").build());
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, QualityGate.newBuilder().status(QualityGate.Status.WARN).conditions(conditions).build(), reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, QualityGate.newBuilder().status(QualityGate.Status.WARN).conditions(conditions).build(), reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 ":no_entry:\n" + "![BLOCKER](https://github.com/gabrie-allaigre/sonar-gitlab-plugin/raw/master/images/severity-blocker.png)\n"
                         + "http://myserver/coding_rules#rule_key=repo%253Arule0\n"
                         + ":warning: [Issue number:0](https://gitlab.com/test/test/File.java#L0) [:blue_book:](http://myserver/coding_rules#rule_key=repo%3Arule0)\n"
@@ -416,7 +416,7 @@ public class GlobalCommentBuilderTest {
         conditions.add(QualityGate.Condition.newBuilder().status(QualityGate.Status.WARN).metricKey("toto").metricName("Toto4").actual("14").symbol(">").warning("20").error("30").build());
         conditions.add(QualityGate.Condition.newBuilder().status(QualityGate.Status.WARN).metricKey("toto").metricName("Toto5").actual("15").symbol("=").warning("10").error("").build());
 
-        Assertions.assertThat(new GlobalCommentBuilder(config, null, QualityGate.newBuilder().status(QualityGate.Status.WARN).conditions(conditions).build(), reporter, new MarkDownUtils()).buildForMarkdown()).isEqualTo(
+        Assertions.assertThat(new GlobalCommentBuilder(config, null, QualityGate.newBuilder().status(QualityGate.Status.WARN).conditions(conditions).build(), reporter, new MarkDownUtils(), new FreemarkerTemplates()).buildForMarkdown()).isEqualTo(
                 "WARN\n" + ":no_entry:\n" + "![BLOCKER](https://github.com/gabrie-allaigre/sonar-gitlab-plugin/raw/master/images/severity-blocker.png)\n"
                         + "http://myserver/coding_rules#rule_key=repo%253Arule0\n"
                         + ":warning: [Issue number:0](https://gitlab.com/test/test/File.java#L0) [:blue_book:](http://myserver/coding_rules#rule_key=repo%3Arule0)\n"
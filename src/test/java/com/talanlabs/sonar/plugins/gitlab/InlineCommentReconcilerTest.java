@@ -0,0 +1,206 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import com.talanlabs.sonar.plugins.gitlab.models.Issue;
+import com.talanlabs.sonar.plugins.gitlab.models.ReportIssue;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.batch.rule.Severity;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InlineCommentReconcilerTest {
+
+    private static final String PROJECT_KEY = "com.talanlabs:example";
+
+    private CommitFacade commitFacade;
+    private InlineCommentReconciler reconciler;
+    private InlineCommentScheduler scheduler;
+
+    @Before
+    public void before() {
+        commitFacade = mock(CommitFacade.class);
+        reconciler = new InlineCommentReconciler(commitFacade, PROJECT_KEY);
+        scheduler = new InlineCommentScheduler(1);
+    }
+
+    @Test
+    public void testFingerprint() {
+        ReportIssue issue = reportIssue("squid:S1", "src/Foo.java", 10, "Remove this");
+
+        Assertions.assertThat(CommentMarkers.fingerprint(Collections.singletonList(issue))).hasSize(32)
+                .isEqualTo(CommentMarkers.fingerprint(Collections.singletonList(reportIssue("squid:S1", "src/Foo.java", 10, "Remove this"))))
+                .isNotEqualTo(CommentMarkers.fingerprint(Collections.singletonList(reportIssue("squid:S2", "src/Foo.java", 10, "Remove this"))))
+                .isNotEqualTo(CommentMarkers.fingerprint(Collections.singletonList(reportIssue("squid:S1", "src/Bar.java", 10, "Remove this"))))
+                .isNotEqualTo(CommentMarkers.fingerprint(Collections.singletonList(reportIssue("squid:S1", "src/Foo.java", 11, "Remove this"))))
+                .isNotEqualTo(CommentMarkers.fingerprint(Collections.singletonList(reportIssue("squid:S1", "src/Foo.java", 10, "Remove that"))))
+                .isNotEqualTo(CommentMarkers.fingerprint(Arrays.asList(issue, issue)));
+    }
+
+    @Test
+    public void testMarker() {
+        String body = CommentMarkers.mark("Remove this", PROJECT_KEY, "0123456789abcdef");
+
+        Assertions.assertThat(body).startsWith("Remove this").contains("<!-- sonar-gitlab:com.talanlabs:example:0123456789abcdef -->");
+        Assertions.assertThat(CommentMarkers.getFingerprint(body, PROJECT_KEY)).isEqualTo("0123456789abcdef");
+        Assertions.assertThat(CommentMarkers.getFingerprint(body + "\n", PROJECT_KEY)).isEqualTo("0123456789abcdef");
+        Assertions.assertThat(CommentMarkers.getFingerprint(body, "com.talanlabs")).isNull();
+        Assertions.assertThat(CommentMarkers.getFingerprint(body, null)).isNull();
+        Assertions.assertThat(CommentMarkers.getFingerprint(CommentMarkers.mark("Remove this", null, "0123456789abcdef"), null)).isEqualTo("0123456789abcdef");
+        Assertions.assertThat(CommentMarkers.getFingerprint("Remove this", PROJECT_KEY)).isNull();
+        Assertions.assertThat(CommentMarkers.getFingerprint(null, PROJECT_KEY)).isNull();
+    }
+
+    @Test
+    public void testCreate() {
+        File file = new File("src/Foo.java");
+        when(commitFacade.getReviewComments()).thenReturn(Collections.singletonList(
+                new IGitLabApiWrapper.ReviewComment("d1", 1, "src/Foo.java", 10, "Not posted by the plugin", false)));
+
+        reconciler.add("abc", file, 10, "Remove this", "f1");
+        reconciler.reconcile(scheduler);
+        scheduler.run();
+
+        verify(commitFacade).createOrUpdateReviewComment("abc", file, 10, CommentMarkers.mark("Remove this", PROJECT_KEY, "f1"));
+        verify(commitFacade, never()).updateReviewComment(any(), anyString());
+        verify(commitFacade, never()).resolveReviewComment(any(), anyBoolean());
+    }
+
+    @Test
+    public void testUnchanged() {
+        File file = new File("src/Foo.java");
+        when(commitFacade.getReviewComments()).thenReturn(Collections.singletonList(
+                new IGitLabApiWrapper.ReviewComment("d1", 1, "src/Foo.java", 10, CommentMarkers.mark("Remove this", PROJECT_KEY, "f1"), false)));
+
+        reconciler.add("abc", file, 10, "Remove this", "f1");
+        reconciler.reconcile(scheduler);
+        scheduler.run();
+
+        verify(commitFacade, never()).createOrUpdateReviewComment(anyString(), any(), anyInt(), anyString());
+        verify(commitFacade, never()).updateReviewComment(any(), anyString());
+        verify(commitFacade, never()).resolveReviewComment(any(), anyBoolean());
+    }
+
+    @Test
+    public void testUpdateAndResolve() {
+        File file = new File("src/Foo.java");
+        IGitLabApiWrapper.ReviewComment changed = new IGitLabApiWrapper.ReviewComment("d1", 1, "src/Foo.java", 10, CommentMarkers.mark("Old wording", PROJECT_KEY, "f1"), false);
+        IGitLabApiWrapper.ReviewComment fixed = new IGitLabApiWrapper.ReviewComment("d2", 2, "src/Foo.java", 20, CommentMarkers.mark("Fixed issue", PROJECT_KEY, "f2"), false);
+        IGitLabApiWrapper.ReviewComment alreadyResolved = new IGitLabApiWrapper.ReviewComment("d3", 3, "src/Foo.java", 30, CommentMarkers.mark("Fixed issue", PROJECT_KEY, "f3"), true);
+        when(commitFacade.getReviewComments()).thenReturn(Arrays.asList(changed, fixed, alreadyResolved));
+
+        reconciler.add("abc", file, 10, "New wording", "f1");
+        reconciler.reconcile(scheduler);
+        scheduler.run();
+
+        verify(commitFacade).updateReviewComment(changed, CommentMarkers.mark("New wording", PROJECT_KEY, "f1"));
+        verify(commitFacade).resolveReviewComment(fixed, true);
+        verify(commitFacade, never()).resolveReviewComment(eq(alreadyResolved), anyBoolean());
+        verify(commitFacade, never()).createOrUpdateReviewComment(anyString(), any(), anyInt(), anyString());
+    }
+
+    @Test
+    public void testSameQueuePerFile() {
+        File file = new File("/home/build/project/src/Foo.java");
+        when(commitFacade.getPath(file)).thenReturn("src/Foo.java");
+        IGitLabApiWrapper.ReviewComment changed = new IGitLabApiWrapper.ReviewComment("d1", 1, "src/Foo.java", 10, CommentMarkers.mark("Old wording", PROJECT_KEY, "f1"), false);
+        IGitLabApiWrapper.ReviewComment fixed = new IGitLabApiWrapper.ReviewComment("d2", 2, "src/Foo.java", 20, CommentMarkers.mark("Fixed issue", PROJECT_KEY, "f2"), false);
+        when(commitFacade.getReviewComments()).thenReturn(Arrays.asList(changed, fixed));
+        InlineCommentScheduler mockScheduler = mock(InlineCommentScheduler.class);
+
+        reconciler.add("abc", file, 10, "New wording", "f1");
+        reconciler.add("abc", file, 30, "New issue", "f3");
+        reconciler.reconcile(mockScheduler);
+
+        verify(mockScheduler, times(3)).schedule(eq("src/Foo.java"), any());
+        verify(mockScheduler, never()).schedule(eq(file.getPath()), any());
+    }
+
+    @Test
+    public void testUnresolveIssueFoundAgain() {
+        File file = new File("src/Foo.java");
+        IGitLabApiWrapper.ReviewComment reopened = new IGitLabApiWrapper.ReviewComment("d1", 1, "src/Foo.java", 10, CommentMarkers.mark("Remove this", PROJECT_KEY, "f1"), true);
+        IGitLabApiWrapper.ReviewComment changed = new IGitLabApiWrapper.ReviewComment("d2", 2, "src/Foo.java", 20, CommentMarkers.mark("Old wording", PROJECT_KEY, "f2"), true);
+        when(commitFacade.getReviewComments()).thenReturn(Arrays.asList(reopened, changed));
+
+        reconciler.add("abc", file, 10, "Remove this", "f1");
+        reconciler.add("abc", file, 20, "New wording", "f2");
+        reconciler.reconcile(scheduler);
+        scheduler.run();
+
+        verify(commitFacade).resolveReviewComment(reopened, false);
+        verify(commitFacade).resolveReviewComment(changed, false);
+        verify(commitFacade).updateReviewComment(changed, CommentMarkers.mark("New wording", PROJECT_KEY, "f2"));
+        verify(commitFacade, never()).updateReviewComment(eq(reopened), anyString());
+        verify(commitFacade, never()).resolveReviewComment(any(), eq(true));
+        verify(commitFacade, never()).createOrUpdateReviewComment(anyString(), any(), anyInt(), anyString());
+    }
+
+    @Test
+    public void testOtherProjectIgnored() {
+        File file = new File("src/Foo.java");
+        IGitLabApiWrapper.ReviewComment otherProject = new IGitLabApiWrapper.ReviewComment("d1", 1, "src/Foo.java", 10, CommentMarkers.mark("Remove this", "com.talanlabs:other", "f1"), false);
+        IGitLabApiWrapper.ReviewComment otherProjectFixed = new IGitLabApiWrapper.ReviewComment("d2", 2, "src/Foo.java", 20, CommentMarkers.mark("Fixed issue", "com.talanlabs:other", "f2"), false);
+        when(commitFacade.getReviewComments()).thenReturn(Arrays.asList(otherProject, otherProjectFixed));
+
+        reconciler.add("abc", file, 10, "Remove this", "f1");
+        reconciler.reconcile(scheduler);
+        scheduler.run();
+
+        verify(commitFacade).createOrUpdateReviewComment("abc", file, 10, CommentMarkers.mark("Remove this", PROJECT_KEY, "f1"));
+        verify(commitFacade, never()).updateReviewComment(any(), anyString());
+        verify(commitFacade, never()).resolveReviewComment(any(), anyBoolean());
+    }
+
+    @Test
+    public void testCommitCommentsOnlyCreated() {
+        File file = new File("src/Foo.java");
+        when(commitFacade.getReviewComments()).thenReturn(Arrays.asList(
+                new IGitLabApiWrapper.ReviewComment(null, null, "src/Foo.java", 10, CommentMarkers.mark("Old wording", PROJECT_KEY, "f1"), false),
+                new IGitLabApiWrapper.ReviewComment(null, null, "src/Foo.java", 20, CommentMarkers.mark("Fixed issue", PROJECT_KEY, "f2"), false)));
+
+        reconciler.add("abc", file, 10, "New wording", "f1");
+        reconciler.add("abc", file, 30, "New issue", "f3");
+        reconciler.reconcile(scheduler);
+        scheduler.run();
+
+        verify(commitFacade).createOrUpdateReviewComment("abc", file, 30, CommentMarkers.mark("New issue", PROJECT_KEY, "f3"));
+        verify(commitFacade, never()).createOrUpdateReviewComment("abc", file, 10, CommentMarkers.mark("New wording", PROJECT_KEY, "f1"));
+        verify(commitFacade, never()).updateReviewComment(any(), anyString());
+        verify(commitFacade, never()).resolveReviewComment(any(), anyBoolean());
+    }
+
+    private static ReportIssue reportIssue(String ruleKey, String path, int line, String message) {
+        Issue issue = Issue.newBuilder().key("1").ruleKey(ruleKey).componentKey("moi:" + path).line(line).message(message).severity(Severity.MAJOR).newIssue(true).build();
+        return ReportIssue.newBuilder().issue(issue).file(path).build();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import com.talanlabs.sonar.plugins.gitlab.api.GitLabRateLimitException;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InlineCommentSchedulerTest {
+
+    @Test
+    public void testOrderPerQueue() {
+        Map<String, List<Integer>> posted = new ConcurrentHashMap<>();
+
+        InlineCommentScheduler scheduler = new InlineCommentScheduler(4, 1);
+        for (int file = 0; file < 10; file++) {
+            String queue = "src/File" + file + ".java";
+            for (int line = 1; line <= 20; line++) {
+                int l = line;
+                scheduler.schedule(queue, () -> posted.computeIfAbsent(queue, k -> Collections.synchronizedList(new ArrayList<>())).add(l));
+            }
+        }
+        scheduler.run();
+
+        Assertions.assertThat(posted).hasSize(10);
+        posted.values().forEach(lines -> Assertions.assertThat(lines).hasSize(20).isSorted());
+    }
+
+    @Test
+    public void testRetryWhenRateLimited() {
+        AtomicInteger calls = new AtomicInteger();
+
+        InlineCommentScheduler scheduler = new InlineCommentScheduler(1, 1);
+        scheduler.schedule("src/Foo.java", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IllegalStateException("Unable to create or update review comment", new IOException("Server returned HTTP response code: 429"));
+            }
+        });
+        scheduler.run();
+
+        Assertions.assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testRetryAfter() {
+        AtomicInteger calls = new AtomicInteger();
+
+        InlineCommentScheduler scheduler = new InlineCommentScheduler(1, 1);
+        scheduler.schedule("src/Foo.java", () -> {
+            if (calls.incrementAndGet() < 2) {
+                throw new IllegalStateException("Unable to create or update review comment", new GitLabRateLimitException("Retry later", Duration.ofMillis(200)));
+            }
+        });
+        long start = System.currentTimeMillis();
+        scheduler.run();
+
+        Assertions.assertThat(calls.get()).isEqualTo(2);
+        Assertions.assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(200);
+    }
+
+    @Test
+    public void testFailed() {
+        AtomicInteger calls = new AtomicInteger();
+
+        InlineCommentScheduler scheduler = new InlineCommentScheduler(1, 1);
+        scheduler.schedule("src/Foo.java", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("Unable to create or update review comment", new IOException("Server returned HTTP response code: 500"));
+        });
+
+        Assertions.assertThatThrownBy(scheduler::run).isInstanceOf(IllegalStateException.class).hasMessage("Unable to create or update review comment");
+        Assertions.assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRateLimited() {
+        Assertions.assertThat(InlineCommentScheduler.isRateLimited(new IllegalStateException("Error", new IOException("{\"message\":\"429 Too Many Requests\"}")))).isTrue();
+        Assertions.assertThat(InlineCommentScheduler.isRateLimited(new IllegalStateException("Error", new IOException("Server returned HTTP response code: 429 for URL: https://gitlab.com/api/v4/projects/1")))).isTrue();
+        Assertions.assertThat(InlineCommentScheduler.isRateLimited(new IllegalStateException("Error", new GitLabRateLimitException("Retry later", null)))).isTrue();
+        Assertions.assertThat(InlineCommentScheduler.isRateLimited(new IllegalStateException("Error", new IOException("Not found")))).isFalse();
+    }
+
+    @Test
+    public void testNotRateLimited() {
+        Assertions.assertThat(InlineCommentScheduler.isRateLimited(new IllegalStateException("Unable to create or update review comment in file src/Foo.java at line 429",
+                new IOException("Server returned HTTP response code: 500 for URL: https://gitlab.com/api/v4/projects/1/repository/commits/4290abc/comments")))).isFalse();
+        Assertions.assertThat(InlineCommentScheduler.isRateLimited(new IllegalStateException("Unable to create or update review comment in file src/Foo429.java at line 12",
+                new IOException("Can't get POST https://gitlab.com/api/v4/projects/429/merge_requests/2/discussions : 400 {\"message\":\"line_code 429 is invalid\"}")))).isFalse();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PatchLineIndexTest {
+
+    @Test
+    public void testEmpty() {
+        PatchLineIndex index = new PatchLineIndex(Collections.singletonList("1"), Collections.emptyMap());
+
+        Assertions.assertThat(index.hasFile("toto.java")).isFalse();
+        Assertions.assertThat(index.getRevision("toto.java", 1, "line")).isNull();
+    }
+
+    @Test
+    public void testFirstRevision() {
+        Map<String, Map<String, PatchLines>> positions = new HashMap<>();
+        positions.put("1", Collections.singletonMap("toto.java", PatchLines.newBuilder().add(10, PatchLines.hash("a")).add(11, PatchLines.hash("b")).build()));
+        positions.put("2", Collections.singletonMap("toto.java", PatchLines.newBuilder().add(10, PatchLines.hash("a")).add(12, PatchLines.hash("c")).build()));
+        positions.put("3", Collections.singletonMap("tata.java", PatchLines.newBuilder().build()));
+
+        PatchLineIndex index = new PatchLineIndex(Arrays.asList("2", "1", "3"), positions);
+
+        Assertions.assertThat(index.hasFile("toto.java")).isTrue();
+        Assertions.assertThat(index.hasFile("tata.java")).isTrue();
+        Assertions.assertThat(index.hasFile("titi.java")).isFalse();
+        Assertions.assertThat(index.getRevision("toto.java", 10, "a")).isEqualTo("2");
+        Assertions.assertThat(index.getRevision("toto.java", 11, "b")).isEqualTo("1");
+        Assertions.assertThat(index.getRevision("toto.java", 12, "c")).isEqualTo("2");
+        Assertions.assertThat(index.getRevision("toto.java", 11, "other")).isNull();
+        Assertions.assertThat(index.getRevision("toto.java", 11, null)).isNull();
+        Assertions.assertThat(index.getRevision("toto.java", 13, "c")).isNull();
+        Assertions.assertThat(index.getRevision("tata.java", 1, "a")).isNull();
+    }
+
+    @Test
+    public void testManyLines() {
+        PatchLines.Builder builder = PatchLines.newBuilder();
+        for (int i = 1; i <= 10000; i++) {
+            builder.add(i, PatchLines.hash("line " + i));
+        }
+        PatchLineIndex index = new PatchLineIndex(Collections.singletonList("1"), Collections.singletonMap("1", Collections.singletonMap("toto.java", builder.build())));
+
+        for (int i = 1; i <= 10000; i++) {
+            Assertions.assertThat(index.getRevision("toto.java", i, "line " + i)).isEqualTo("1");
+        }
+        Assertions.assertThat(index.getRevision("toto.java", 10001, "line 10001")).isNull();
+    }
+
+    @Test(timeout = 10000)
+    public void testLargeFile() {
+        PatchLines.Builder builder = PatchLines.newBuilder();
+        for (int i = 1; i <= 200000; i++) {
+            builder.add(i, PatchLines.hash("line " + i));
+        }
+        PatchLineIndex index = new PatchLineIndex(Collections.singletonList("1"), Collections.singletonMap("1", Collections.singletonMap("generated.java", builder.build())));
+
+        for (int i = 1; i <= 200000; i++) {
+            Assertions.assertThat(index.getRevision("generated.java", i, "line " + i)).isEqualTo("1");
+        }
+        Assertions.assertThat(index.getRevision("generated.java", 200001, "line 200001")).isNull();
+    }
+}
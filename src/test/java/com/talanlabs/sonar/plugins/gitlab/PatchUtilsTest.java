@@ -23,12 +23,12 @@ public class PatchUtilsTest {
 
     @Test
     public void testEmpty() {
-        Assertions.assertThat(PatchUtils.getPositionsFromPatch("12313")).isEmpty();
+        Assertions.assertThat(PatchUtils.getPatchLines("12313").size()).isZero();
     }
 
     @Test
     public void testWrong() {
-        Assertions.assertThatThrownBy(() -> PatchUtils.getPositionsFromPatch("@ wrong")).isInstanceOf(IllegalStateException.class).hasMessage("Unable to parse line:\n" +
+        Assertions.assertThatThrownBy(() -> PatchUtils.getPatchLines("@ wrong")).isInstanceOf(IllegalStateException.class).hasMessage("Unable to parse line:\n" +
                 "\t@ wrong\n" +
                 "Full patch: \n" +
                 "\t@ wrong");
@@ -36,7 +36,7 @@ public class PatchUtilsTest {
 
     @Test
     public void testCorrectUnixEOL() {
-        Assertions.assertThat(PatchUtils.getPositionsFromPatch("@@ -78,6 +78,27 @@\n" +
+        PatchLines patchLines = PatchUtils.getPatchLines("@@ -78,6 +78,27 @@\n" +
                 "\t\t\t\t\"src/styles.scss\",\n" +
                 "                \"src/cordova-styles.scss\"\n" +
                 "              ]\n" +
@@ -63,17 +63,14 @@ public class PatchUtilsTest {
                 "              ]\n" +
                 "            }\n" +
                 "          }\n" +
-                "        },")).isNotEmpty().hasSize(3).containsExactlyInAnyOrder(
-                new IGitLabApiWrapper.Line(83, "             \"outputHashing\": \"all\","),
-                new IGitLabApiWrapper.Line(82, "             \"optimization\": true,"),
-                new IGitLabApiWrapper.Line(81, "           \"prod-cordova\": {")
-        );
-    }
+                "        },");
 
+        assertCorrect(patchLines);
+    }
 
     @Test
     public void testCorrectMacEOL() {
-        Assertions.assertThat(PatchUtils.getPositionsFromPatch("@@ -78,6 +78,27 @@\r" +
+        PatchLines patchLines = PatchUtils.getPatchLines("@@ -78,6 +78,27 @@\r" +
                 "\t\t\t\t\"src/styles.scss\",\r" +
                 "                \"src/cordova-styles.scss\"\r" +
                 "              ]\r" +
@@ -100,16 +97,14 @@ public class PatchUtilsTest {
                 "              ]\r" +
                 "            }\r" +
                 "          }\r" +
-                "        },")).isNotEmpty().hasSize(3).containsExactlyInAnyOrder(
-                new IGitLabApiWrapper.Line(83, "             \"outputHashing\": \"all\","),
-                new IGitLabApiWrapper.Line(82, "             \"optimization\": true,"),
-                new IGitLabApiWrapper.Line(81, "           \"prod-cordova\": {")
-        );
+                "        },");
+
+        assertCorrect(patchLines);
     }
 
     @Test
     public void testCorrectWindowsEOL() {
-        Assertions.assertThat(PatchUtils.getPositionsFromPatch("@@ -78,6 +78,27 @@\n" +
+        PatchLines patchLines = PatchUtils.getPatchLines("@@ -78,6 +78,27 @@\n" +
                 "\t\t\t\t\"src/styles.scss\",\r\n" +
                 "                \"src/cordova-styles.scss\"\r\n" +
                 "              ]\r\n" +
@@ -136,10 +131,61 @@ public class PatchUtilsTest {
                 "              ]\r\n" +
                 "            }\r\n" +
                 "          }\r\n" +
-                "        },")).isNotEmpty().hasSize(3).containsExactlyInAnyOrder(
-                new IGitLabApiWrapper.Line(83, "             \"outputHashing\": \"all\","),
-                new IGitLabApiWrapper.Line(82, "             \"optimization\": true,"),
-                new IGitLabApiWrapper.Line(81, "           \"prod-cordova\": {")
-        );
+                "        },");
+
+        assertCorrect(patchLines);
+    }
+
+    @Test
+    public void testPatchLines() {
+        String patch = "--- a/toto.java\n" +
+                "+++ b/toto.java\n" +
+                "@@ -1,3 +1,4 @@\n" +
+                " first\n" +
+                "-removed\n" +
+                "+added\n" +
+                "+\n" +
+                " last\n" +
+                "@@ -10 +11,2 @@ class Toto {\r\n" +
+                "+again\r\n" +
+                "+  indented\r\n";
+
+        PatchLines patchLines = PatchUtils.getPatchLines(patch);
+
+        Assertions.assertThat(patchLines.size()).isEqualTo(5);
+        Assertions.assertThat(contains(patchLines, 2, "added")).isTrue();
+        Assertions.assertThat(contains(patchLines, 3, "")).isTrue();
+        Assertions.assertThat(contains(patchLines, 11, "again")).isTrue();
+        Assertions.assertThat(contains(patchLines, 12, "  indented")).isTrue();
+        Assertions.assertThat(contains(patchLines, 2, "removed")).isFalse();
+        Assertions.assertThat(contains(patchLines, 4, "last")).isFalse();
+    }
+
+    @Test
+    public void testPatchLinesHunkHeaders() {
+        Assertions.assertThat(contains(PatchUtils.getPatchLines("@@ -1 +5 @@\n+a"), 5, "a")).isTrue();
+        Assertions.assertThat(contains(PatchUtils.getPatchLines("@@\t-1,2\t+7,3\t@@ method()\n+a"), 7, "a")).isTrue();
+        Assertions.assertThat(contains(PatchUtils.getPatchLines("@@ -0,0 +1 @@\r\n\r\n+a\r\n\r\n+b"), 2, "b")).isTrue();
+
+        for (String header : new String[] { "@@ -1 +a @@", "@@ -1, +1 @@", "@@ -1  +1 @@", "@@ -1 +1 @", "@@ -1 +1", "@@ +1 -1 @@", "@@ -1 +99999999999 @@", "@@ -1 +1 @@\u2028" }) {
+            Assertions.assertThatThrownBy(() -> PatchUtils.getPatchLines(header)).isInstanceOf(IllegalStateException.class).hasMessage("Unable to parse line:\n\t" + header + "\nFull patch: \n\t" + header);
+        }
+    }
+
+    private static void assertCorrect(PatchLines patchLines) {
+        Assertions.assertThat(patchLines.size()).isEqualTo(3);
+        Assertions.assertThat(contains(patchLines, 81, "           \"prod-cordova\": {")).isTrue();
+        Assertions.assertThat(contains(patchLines, 82, "             \"optimization\": true,")).isTrue();
+        Assertions.assertThat(contains(patchLines, 83, "             \"outputHashing\": \"all\",")).isTrue();
+    }
+
+    static boolean contains(PatchLines patchLines, int number, CharSequence content) {
+        long hash = PatchLines.hash(content);
+        for (int i = 0; i < patchLines.size(); i++) {
+            if (patchLines.getNumber(i) == number && patchLines.getHash(i) == hash) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,63 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarqube.ws.Rules;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class PersistentRuleCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testSaveLoad() throws IOException {
+        File dir = temp.newFolder();
+
+        PersistentRuleCache ruleCache = new PersistentRuleCache(dir, "http://sonar", 60_000L);
+        Assertions.assertThat(ruleCache.get("squid:123")).isNull();
+        ruleCache.put(Rules.Rule.newBuilder().setKey("squid:123").setName("Rule 123").build());
+        ruleCache.save();
+
+        Assertions.assertThat(new PersistentRuleCache(dir, "http://sonar", 60_000L).get("squid:123")).isNotNull()
+                .extracting(Rules.Rule::getName).isEqualTo("Rule 123");
+        Assertions.assertThat(new PersistentRuleCache(dir, "http://other", 60_000L).get("squid:123")).isNull();
+        Assertions.assertThat(new PersistentRuleCache(dir, "http://sonar", -1L).get("squid:123")).isNull();
+    }
+
+    @Test
+    public void testCorruptedFile() throws IOException {
+        File dir = temp.newFolder();
+
+        PersistentRuleCache ruleCache = new PersistentRuleCache(dir, "http://sonar", 60_000L);
+        ruleCache.put(Rules.Rule.newBuilder().setKey("squid:123").setName("Rule 123").build());
+        ruleCache.save();
+
+        File[] files = new File(dir, "rules").listFiles();
+        Assertions.assertThat(files).hasSize(1);
+        Files.write(files[0].toPath(), new byte[] {0x53, 0x47, 0x52, 0x31, 0, 0, 0, 1, 0});
+
+        Assertions.assertThat(new PersistentRuleCache(dir, "http://sonar", 60_000L).get("squid:123")).isNull();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class PersistentValueCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testPutGet() throws IOException {
+        File dir = temp.newFolder();
+
+        PersistentValueCache cache = new PersistentValueCache(dir, "users", 60_000L);
+        Assertions.assertThat(cache.get("john@example.com")).isNull();
+        cache.put("john@example.com", "john_smith");
+        cache.put("jack@example.com", "");
+
+        Assertions.assertThat(new PersistentValueCache(dir, "users", 60_000L).get("john@example.com")).isEqualTo("john_smith");
+        Assertions.assertThat(new PersistentValueCache(dir, "users", 60_000L).get("jack@example.com")).isEmpty();
+        Assertions.assertThat(new PersistentValueCache(dir, "projects", 60_000L).get("john@example.com")).isNull();
+        Assertions.assertThat(new PersistentValueCache(dir, "users", -1L).get("john@example.com")).isNull();
+
+        cache.remove("john@example.com");
+        Assertions.assertThat(cache.get("john@example.com")).isNull();
+    }
+
+    @Test
+    public void testCorruptedFile() throws IOException {
+        File dir = temp.newFolder();
+
+        PersistentValueCache cache = new PersistentValueCache(dir, "users", 60_000L);
+        cache.put("john@example.com", "john_smith");
+
+        File[] files = new File(dir, "users").listFiles();
+        Assertions.assertThat(files).hasSize(1);
+        Files.write(files[0].toPath(), new byte[] {0x53, 0x47, 0x56, 0x31, 0});
+
+        Assertions.assertThat(cache.get("john@example.com")).isNull();
+    }
+}
@@ -22,6 +22,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.AdditionalMatchers;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.rule.Severity;
@@ -31,6 +32,8 @@ import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.System2;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -57,7 +60,7 @@ public class ReporterBuilderTest {
 
         GitLabPluginConfiguration config = new GitLabPluginConfiguration(settings.asConfig(), new System2());
 
-        reporterBuilder = new ReporterBuilder(config, sonarFacade, commitFacade, new MarkDownUtils());
+        reporterBuilder = new ReporterBuilder(config, sonarFacade, commitFacade, new MarkDownUtils(), new FreemarkerTemplates());
     }
 
     @Test
@@ -115,6 +118,25 @@ public class ReporterBuilderTest {
         Assertions.assertThat(reporter).isNotNull().extracting(Reporter::getStatus, Reporter::getStatusDescription).contains("failed", "SonarQube reported 6 issues, with 6 blocker (fail)");
     }
 
+    @Test
+    public void testPrefetchRulesBeforeProcessing() {
+        settings.setProperty(GitLabPlugin.GITLAB_LOAD_RULES, true);
+        settings.setProperty(GitLabPlugin.GITLAB_ISSUE_FILTER, "MAJOR");
+
+        File inputFile1 = new File("src/Foo.php");
+        Issue blocker = Utils.newIssue("foo:src/Foo.php", inputFile1, 1, Severity.BLOCKER, true, "msg1", "rule1");
+        Issue major = Utils.newIssue("foo:src/Foo.php", inputFile1, 2, Severity.MAJOR, true, "msg2", "rule2");
+        Issue sameRule = Utils.newIssue("foo:src/Foo.php", inputFile1, 3, Severity.CRITICAL, true, "msg3", "rule1");
+        Issue minor = Utils.newIssue("foo:src/Foo.php", inputFile1, 4, Severity.MINOR, true, "msg4", "rule3");
+        Issue notNewIssue = Utils.newIssue("foo:src/Foo.php", inputFile1, 5, Severity.BLOCKER, false, "msg5", "rule4");
+
+        reporterBuilder.build(null, Arrays.asList(blocker, major, sameRule, minor, notNewIssue));
+
+        InOrder inOrder = Mockito.inOrder(sonarFacade);
+        inOrder.verify(sonarFacade).prefetchRules(Mockito.argThat(ruleKeys -> ruleKeys.size() == 2 && ruleKeys.containsAll(Arrays.asList("repo:rule1", "repo:rule2"))));
+        inOrder.verify(sonarFacade, Mockito.atLeastOnce()).getRule(any());
+    }
+
     @Test
     public void testCommitAnalysisWithNewIssuesOnly() {
         settings.setProperty(GitLabPlugin.GITLAB_ONLY_ISSUE_FROM_COMMIT_FILE, true);
@@ -471,7 +493,7 @@ public class ReporterBuilderTest {
     }
 
     @Test
-    public void testCommitAnalysisWithNewIssuesSast() {
+    public void testCommitAnalysisWithNewIssuesSast() throws IOException {
         settings.setProperty(GitLabPlugin.GITLAB_ONLY_ISSUE_FROM_COMMIT_FILE, false);
         settings.setProperty(GitLabPlugin.GITLAB_STATUS_NOTIFICATION_MODE, StatusNotificationsMode.NOTHING.getMeaning());
         settings.setProperty(GitLabPlugin.GITLAB_JSON_MODE, JsonMode.SAST.name());
@@ -498,14 +520,15 @@ public class ReporterBuilderTest {
         Mockito.when(commitFacade.hasFile(inputFile1)).thenReturn(true);
         Mockito.when(commitFacade.getRevisionForLine(inputFile1, 1)).thenReturn("abc123");
 
-        reporterBuilder.build(null, Arrays.asList(newIssue, globalIssue, issueOnProject, issueOnDir, fileNotInPR, lineNotVisible, notNewIssue));
+        Reporter reporter = reporterBuilder.build(null, Arrays.asList(newIssue, globalIssue, issueOnProject, issueOnDir, fileNotInPR, lineNotVisible, notNewIssue));
 
-        Mockito.verify(commitFacade).writeJsonFile(Mockito.contains(
-                "[{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"msg\",\"file\":\"null\",\"line\":\"0\",\"priority\":\"BLOCKER\",\"solution\":\"http://myserver/coding_rules#rule_key=repo%3Arule\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"msg4\",\"file\":\"null\",\"line\":\"0\",\"priority\":\"BLOCKER\",\"solution\":\"http://myserver/coding_rules#rule_key=repo%3Arule\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"msg5\",\"file\":\"null\",\"line\":\"0\",\"priority\":\"BLOCKER\",\"solution\":\"http://myserver/coding_rules#rule_key=repo%3Arule\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"msg1\",\"file\":\"null\",\"line\":\"1\",\"priority\":\"BLOCKER\",\"solution\":\"http://myserver/coding_rules#rule_key=repo%3Arule\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"msg2\",\"file\":\"null\",\"line\":\"2\",\"priority\":\"BLOCKER\",\"solution\":\"http://myserver/coding_rules#rule_key=repo%3Arule\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"msg3\",\"file\":\"null\",\"line\":\"1\",\"priority\":\"BLOCKER\",\"solution\":\"http://myserver/coding_rules#rule_key=repo%3Arule\"}]"));
+        Mockito.verify(commitFacade).writeJsonFile(reporter);
+        Assertions.assertThat(writeJson(reporter)).contains(
+                "[{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"msg\",\"file\":\"null\",\"line\":\"0\",\"priority\":\"BLOCKER\",\"solution\":\"http://myserver/coding_rules#rule_key=repo%3Arule\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"msg4\",\"file\":\"null\",\"line\":\"0\",\"priority\":\"BLOCKER\",\"solution\":\"http://myserver/coding_rules#rule_key=repo%3Arule\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"msg5\",\"file\":\"null\",\"line\":\"0\",\"priority\":\"BLOCKER\",\"solution\":\"http://myserver/coding_rules#rule_key=repo%3Arule\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"msg1\",\"file\":\"null\",\"line\":\"1\",\"priority\":\"BLOCKER\",\"solution\":\"http://myserver/coding_rules#rule_key=repo%3Arule\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"msg2\",\"file\":\"null\",\"line\":\"2\",\"priority\":\"BLOCKER\",\"solution\":\"http://myserver/coding_rules#rule_key=repo%3Arule\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"null\",\"message\":\"msg3\",\"file\":\"null\",\"line\":\"1\",\"priority\":\"BLOCKER\",\"solution\":\"http://myserver/coding_rules#rule_key=repo%3Arule\"}]");
     }
 
     @Test
-    public void testCommitAnalysisWithNewIssuesCodeClimate() {
+    public void testCommitAnalysisWithNewIssuesCodeClimate() throws IOException {
         settings.setProperty(GitLabPlugin.GITLAB_ONLY_ISSUE_FROM_COMMIT_FILE, false);
         settings.setProperty(GitLabPlugin.GITLAB_STATUS_NOTIFICATION_MODE, StatusNotificationsMode.NOTHING.getMeaning());
         settings.setProperty(GitLabPlugin.GITLAB_JSON_MODE, JsonMode.CODECLIMATE.name());
@@ -532,10 +555,11 @@ public class ReporterBuilderTest {
         Mockito.when(commitFacade.hasFile(inputFile1)).thenReturn(true);
         Mockito.when(commitFacade.getRevisionForLine(inputFile1, 1)).thenReturn("abc123");
 
-        reporterBuilder.build(null, Arrays.asList(newIssue, globalIssue, issueOnProject, issueOnDir, fileNotInPR, lineNotVisible, notNewIssue));
+        Reporter reporter = reporterBuilder.build(null, Arrays.asList(newIssue, globalIssue, issueOnProject, issueOnDir, fileNotInPR, lineNotVisible, notNewIssue));
 
-        Mockito.verify(commitFacade).writeJsonFile(Mockito.contains(
-                "[{\"fingerprint\":\"06496daf6fab6a0f97d6e0469e23c314\",\"description\":\"msg\",\"severity\":\"blocker\",\"location\":{\"path\":\"null\",\"lines\": { \"begin\":0,\"end\":0}}},{\"fingerprint\":\"0c0d7bbe0396951af65c450966b422fb\",\"description\":\"msg4\",\"severity\":\"blocker\",\"location\":{\"path\":\"null\",\"lines\": { \"begin\":0,\"end\":0}}},{\"fingerprint\":\"7d626e4f4d387b14046054a2c2eff2ff\",\"description\":\"msg5\",\"severity\":\"blocker\",\"location\":{\"path\":\"null\",\"lines\": { \"begin\":0,\"end\":0}}},{\"fingerprint\":\"42e8b6ecbbab8acf76ead03757e49300\",\"description\":\"msg1\",\"severity\":\"blocker\",\"location\":{\"path\":\"null\",\"lines\": { \"begin\":1,\"end\":1}}},{\"fingerprint\":\"52660d2146c00c13d697e8a12be7cad3\",\"description\":\"msg2\",\"severity\":\"blocker\",\"location\":{\"path\":\"null\",\"lines\": { \"begin\":2,\"end\":2}}},{\"fingerprint\":\"c6acd4f8aa70e27dde47469a54efdebe\",\"description\":\"msg3\",\"severity\":\"blocker\",\"location\":{\"path\":\"null\",\"lines\": { \"begin\":1,\"end\":1}}}]"));
+        Mockito.verify(commitFacade).writeJsonFile(reporter);
+        Assertions.assertThat(writeJson(reporter)).contains(
+                "[{\"fingerprint\":\"06496daf6fab6a0f97d6e0469e23c314\",\"description\":\"msg\",\"severity\":\"blocker\",\"location\":{\"path\":\"null\",\"lines\": { \"begin\":0,\"end\":0}}},{\"fingerprint\":\"0c0d7bbe0396951af65c450966b422fb\",\"description\":\"msg4\",\"severity\":\"blocker\",\"location\":{\"path\":\"null\",\"lines\": { \"begin\":0,\"end\":0}}},{\"fingerprint\":\"7d626e4f4d387b14046054a2c2eff2ff\",\"description\":\"msg5\",\"severity\":\"blocker\",\"location\":{\"path\":\"null\",\"lines\": { \"begin\":0,\"end\":0}}},{\"fingerprint\":\"42e8b6ecbbab8acf76ead03757e49300\",\"description\":\"msg1\",\"severity\":\"blocker\",\"location\":{\"path\":\"null\",\"lines\": { \"begin\":1,\"end\":1}}},{\"fingerprint\":\"52660d2146c00c13d697e8a12be7cad3\",\"description\":\"msg2\",\"severity\":\"blocker\",\"location\":{\"path\":\"null\",\"lines\": { \"begin\":2,\"end\":2}}},{\"fingerprint\":\"c6acd4f8aa70e27dde47469a54efdebe\",\"description\":\"msg3\",\"severity\":\"blocker\",\"location\":{\"path\":\"null\",\"lines\": { \"begin\":1,\"end\":1}}}]");
     }
 
     @Test
@@ -568,7 +592,7 @@ public class ReporterBuilderTest {
 
         reporterBuilder.build(null, Arrays.asList(newIssue, globalIssue, issueOnProject, issueOnDir, fileNotInPR, lineNotVisible, notNewIssue));
 
-        Mockito.verify(commitFacade, never()).writeJsonFile(any());
+        Mockito.verify(commitFacade, never()).writeJsonFile(any(Reporter.class));
     }
 
     @Test
@@ -773,4 +797,10 @@ public class ReporterBuilderTest {
 
         Mockito.verify(sonarFacade).getRule("repo:rule");
     }
+
+    private static String writeJson(Reporter reporter) throws IOException {
+        StringWriter writer = new StringWriter();
+        reporter.writeJson(writer);
+        return writer.toString();
+    }
 }
@@ -29,6 +29,9 @@ import org.sonar.api.config.PropertyDefinitions;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.System2;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 public class ReporterTest {
 
     private static final String GITLAB_URL = "https://gitlab.com/test/test";
@@ -107,53 +110,53 @@ public class ReporterTest {
     }
 
     @Test
-    public void oneIssueNoSast() {
+    public void oneIssueNoSast() throws IOException {
         settings.setProperty(GitLabPlugin.GITLAB_JSON_MODE, JsonMode.NONE.name());
 
         reporter.process(Utils.newIssue("component", null, null, Severity.INFO, true, "Issue", "rule"), null, null, GITLAB_URL, "file", "http://myserver", true);
 
-        Assertions.assertThat(reporter.buildJson()).isEqualTo("[]");
+        Assertions.assertThat(writeJson(reporter)).isEqualTo("[]");
     }
 
     @Test
-    public void oneIssueSast() {
+    public void oneIssueSast() throws IOException {
         settings.setProperty(GitLabPlugin.GITLAB_JSON_MODE, JsonMode.SAST.name());
 
         reporter.process(Utils.newIssue("123", "component", null, 10, Severity.INFO, true, "Issue \"NULL\"", "rule"), null, null, GITLAB_URL, "file", "http://myserver", true);
 
-        Assertions.assertThat(reporter.buildJson()).isEqualTo("[{\"tool\":\"sonarqube\",\"fingerprint\":\"123\",\"message\":\"Issue \\\"NULL\\\"\",\"file\":\"file\",\"line\":\"10\",\"priority\":\"INFO\",\"solution\":\"http://myserver\"}]");
+        Assertions.assertThat(writeJson(reporter)).isEqualTo("[{\"tool\":\"sonarqube\",\"fingerprint\":\"123\",\"message\":\"Issue \\\"NULL\\\"\",\"file\":\"file\",\"line\":\"10\",\"priority\":\"INFO\",\"solution\":\"http://myserver\"}]");
     }
 
     @Test
-    public void oneIssueCodeClimate() {
+    public void oneIssueCodeClimate() throws IOException {
         settings.setProperty(GitLabPlugin.GITLAB_JSON_MODE, JsonMode.CODECLIMATE.name());
 
         reporter.process(Utils.newIssue("456", "component", null, 20, Severity.INFO, true, "Issue \"NULL\"", "rule"), null, null, GITLAB_URL, "file", "http://myserver", true);
 
-        Assertions.assertThat(reporter.buildJson()).isEqualTo("[{\"fingerprint\":\"22067daa06aa1812f26340c9e511cf4d\",\"description\":\"Issue "
+        Assertions.assertThat(writeJson(reporter)).isEqualTo("[{\"fingerprint\":\"22067daa06aa1812f26340c9e511cf4d\",\"description\":\"Issue "
                 + "\\\"NULL\\\"\",\"severity\":\"info\",\"location\":{\"path\":\"file\",\"lines\": { \"begin\":20,\"end\":20}}}]");
     }
 
     @Test
-    public void issuesSast() {
+    public void issuesSast() throws IOException {
         settings.setProperty(GitLabPlugin.GITLAB_JSON_MODE, JsonMode.SAST.name());
 
         for (int i = 0; i < 5; i++) {
             reporter.process(Utils.newIssue("toto_" + i, "component", null, null, Severity.INFO, true, "Issue", "rule" + i), null, null, GITLAB_URL, "file", "http://myserver/rule" + i, true);
         }
 
-        Assertions.assertThat(reporter.buildJson()).isEqualTo("[{\"tool\":\"sonarqube\",\"fingerprint\":\"toto_0\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver/rule0\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"toto_1\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver/rule1\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"toto_2\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver/rule2\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"toto_3\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver/rule3\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"toto_4\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver/rule4\"}]");
+        Assertions.assertThat(writeJson(reporter)).isEqualTo("[{\"tool\":\"sonarqube\",\"fingerprint\":\"toto_0\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver/rule0\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"toto_1\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver/rule1\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"toto_2\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver/rule2\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"toto_3\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver/rule3\"},{\"tool\":\"sonarqube\",\"fingerprint\":\"toto_4\",\"message\":\"Issue\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver/rule4\"}]");
     }
 
     @Test
-    public void issuesCodeClimate() {
+    public void issuesCodeClimate() throws IOException {
         settings.setProperty(GitLabPlugin.GITLAB_JSON_MODE, JsonMode.CODECLIMATE.name());
 
         for (int i = 0; i < 5; i++) {
             reporter.process(Utils.newIssue("tata_" + i, "component", null, null, Severity.INFO, true, "Issue", "rule" + i), null, null, GITLAB_URL, "file", "http://myserver/rule" + i, true);
         }
 
-        Assertions.assertThat(reporter.buildJson()).isEqualTo(
+        Assertions.assertThat(writeJson(reporter)).isEqualTo(
                 "[{\"fingerprint\":\"1a9ca945139cfb261f44658f374051a1\",\"description\":\"Issue\",\"severity\":\"info\","
                         + "\"location\":{\"path\":\"file\",\"lines\": { \"begin\":0,\"end\":0}}},{\"fingerprint\":\"1a9ca945139cfb261f44658f374051a1\","
                         + "\"description\":\"Issue\",\"severity\":\"info\",\"location\":{\"path\":\"file\",\"lines\": { \"begin\":0,\"end\":0}}},"
@@ -165,12 +168,12 @@ public class ReporterTest {
     }
 
     @Test
-    public void issuesJsonLine() {
+    public void issuesJsonLine() throws IOException {
         settings.setProperty(GitLabPlugin.GITLAB_JSON_MODE, JsonMode.SAST.name());
 
         reporter.process(Utils.newIssue("toto", "component", null, null, Severity.INFO, true, "Issue\nline1\n\rline2", "rule"), null, null, GITLAB_URL, "file", "http://myserver/rule", true);
 
-        Assertions.assertThat(reporter.buildJson()).isEqualTo("[{\"tool\":\"sonarqube\",\"fingerprint\":\"toto\",\"message\":\"Issue\\nline1\\n\\rline2\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver/rule\"}]");
+        Assertions.assertThat(writeJson(reporter)).isEqualTo("[{\"tool\":\"sonarqube\",\"fingerprint\":\"toto\",\"message\":\"Issue\\nline1\\n\\rline2\",\"file\":\"file\",\"line\":\"0\",\"priority\":\"INFO\",\"solution\":\"http://myserver/rule\"}]");
     }
 
     @Test
@@ -276,4 +279,10 @@ public class ReporterTest {
 
         Assertions.assertThat(reporter.getStatus()).isEqualTo(MessageHelper.SUCCESS_GITLAB_STATUS);
     }
+
+    private static String writeJson(Reporter reporter) throws IOException {
+        StringWriter writer = new StringWriter();
+        reporter.writeJson(writer);
+        return writer.toString();
+    }
 }
@@ -19,8 +19,10 @@ package com.talanlabs.sonar.plugins.gitlab;
 import com.google.protobuf.AbstractMessageLite;
 import com.talanlabs.sonar.plugins.gitlab.models.Issue;
 import com.talanlabs.sonar.plugins.gitlab.models.QualityGate;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import okio.Buffer;
 import org.apache.commons.io.IOUtils;
 import org.assertj.core.api.Assertions;
@@ -41,6 +43,8 @@ import org.sonarqube.ws.client.HttpException;
 
 import java.io.*;
 import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class SonarFacadeTest {
@@ -182,14 +186,39 @@ public class SonarFacadeTest {
 
     @Test
     public void testFailedWaitLong() throws IOException {
-        for (int i = 0; i < 5; i++) {
-            Ce.TaskResponse taskResponse1 = Ce.TaskResponse.newBuilder().setTask(Ce.Task.newBuilder().setStatus(Ce.TaskStatus.PENDING).build()).build();
-            sonar.enqueue(new MockResponse().setResponseCode(200).addHeader("Content-Type", "application/x-protobuf").setBody(toBuffer(taskResponse1)));
-        }
+        settings.setProperty(GitLabPlugin.GITLAB_QUERY_WAIT, 50);
+        sonarFacade = new SonarFacade(settings.asConfig(), new GitLabPluginConfiguration(settings.asConfig(), new System2()));
+        sonarFacade.init(projectDir, workDir);
+
+        Buffer pending = toBuffer(Ce.TaskResponse.newBuilder().setTask(Ce.Task.newBuilder().setStatus(Ce.TaskStatus.PENDING).build()).build());
+        sonar.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(200).addHeader("Content-Type", "application/x-protobuf").setBody(pending.clone());
+            }
+        });
 
         createReportTaskFile();
 
+        long start = System.currentTimeMillis();
         Assertions.assertThatThrownBy(() -> sonarFacade.loadQualityGate()).isInstanceOf(IllegalStateException.class).hasMessage("Report processing is taking longer than the configured wait limit.");
+        Assertions.assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(5 * 50);
+        Assertions.assertThat(sonar.getRequestCount()).isGreaterThan(2);
+    }
+
+    @Test
+    public void testWaitTimeout() throws IOException {
+        settings.setProperty(GitLabPlugin.GITLAB_QUERY_TIMEOUT, 0);
+        sonarFacade = new SonarFacade(settings.asConfig(), new GitLabPluginConfiguration(settings.asConfig(), new System2()));
+        sonarFacade.init(projectDir, workDir);
+
+        Ce.TaskResponse taskResponse = Ce.TaskResponse.newBuilder().setTask(Ce.Task.newBuilder().setStatus(Ce.TaskStatus.IN_PROGRESS).build()).build();
+        sonar.enqueue(new MockResponse().setResponseCode(200).addHeader("Content-Type", "application/x-protobuf").setBody(toBuffer(taskResponse)));
+
+        createReportTaskFile();
+
+        Assertions.assertThatThrownBy(() -> sonarFacade.loadQualityGate()).isInstanceOf(IllegalStateException.class).hasMessage("Report processing is taking longer than the configured wait limit.");
+        Assertions.assertThat(sonar.getRequestCount()).isEqualTo(1);
     }
 
     @Test
@@ -347,6 +376,41 @@ public class SonarFacadeTest {
         Assertions.assertThat(issues).isNotNull().isNotEmpty().hasSize(10);
     }
 
+    @Test
+    public void testParallelMultiPageGetNewIssue() throws IOException {
+        settings.setProperty(GitLabPlugin.GITLAB_SONAR_QUERY_PARALLELISM, 3);
+        sonarFacade = new SonarFacade(settings.asConfig(), new GitLabPluginConfiguration(settings.asConfig(), new System2()));
+        sonarFacade.init(projectDir, workDir);
+
+        sonar.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                int page = Integer.parseInt(request.getRequestUrl().queryParameter("p"));
+                Issues.SearchWsResponse.Builder searchWsResponseBuilder = Issues.SearchWsResponse.newBuilder().setTotal(44).setPs(10);
+                for (int i = 0; i < (page < 5 ? 10 : 4); i++) {
+                    searchWsResponseBuilder.addIssues(
+                            Issues.Issue.newBuilder().setKey(page + "-" + i).setComponent("moi:toto.java").setRule("squid:123").setLine(10).setMessage("Error here").setSeverity(Common.Severity.BLOCKER)
+                                    .setProject("moi").build());
+                }
+                searchWsResponseBuilder.addComponents(Issues.Component.newBuilder().setKey("moi:toto.java").setQualifier(Qualifiers.FILE).setPath("toto.java").build());
+                try {
+                    return new MockResponse().setResponseCode(200).addHeader("Content-Type", "application/x-protobuf").setBody(toBuffer(searchWsResponseBuilder.build()));
+                } catch (IOException e) {
+                    return new MockResponse().setResponseCode(500);
+                }
+            }
+        });
+
+        createReportTaskFile();
+
+        List<Issue> issues = sonarFacade.getNewIssues();
+        Assertions.assertThat(issues).hasSize(44);
+        Assertions.assertThat(issues.get(0).getKey()).isEqualTo("1-0");
+        Assertions.assertThat(issues.get(10).getKey()).isEqualTo("2-0");
+        Assertions.assertThat(issues.get(43).getKey()).isEqualTo("5-3");
+        Assertions.assertThat(sonar.getRequestCount()).isEqualTo(5);
+    }
+
     @Test
     public void tesNoFileGetNewIssue() throws IOException {
         Issues.SearchWsResponse.Builder searchWsResponseBuilder = Issues.SearchWsResponse.newBuilder().setTotal(1).setPs(10);
@@ -365,6 +429,27 @@ public class SonarFacadeTest {
         Assertions.assertThat(issues).hasSize(10);
     }
 
+    @Test
+    public void testGetNewIssueSeveralComponents() throws IOException {
+        Issues.SearchWsResponse.Builder searchWsResponseBuilder = Issues.SearchWsResponse.newBuilder().setTotal(3).setPs(10);
+        for (String component : Arrays.asList("moi:toto.java", "moi:titi.java", "moi:src")) {
+            searchWsResponseBuilder.addIssues(
+                    Issues.Issue.newBuilder().setKey(component).setComponent(component).setRule("squid:123").setLine(10).setMessage("Error here").setSeverity(Common.Severity.BLOCKER)
+                            .setProject("moi").build());
+        }
+        Issues.SearchWsResponse searchWsResponse = searchWsResponseBuilder
+                .addComponents(Issues.Component.newBuilder().setKey("moi:src").setQualifier(Qualifiers.DIRECTORY).setPath("src").build())
+                .addComponents(Issues.Component.newBuilder().setKey("moi:titi.java").setQualifier(Qualifiers.UNIT_TEST_FILE).setPath("titi.java").build())
+                .addComponents(Issues.Component.newBuilder().setKey("moi:toto.java").setQualifier(Qualifiers.FILE).setPath("toto.java").build())
+                .build();
+        sonar.enqueue(new MockResponse().setResponseCode(200).addHeader("Content-Type", "application/x-protobuf").setBody(toBuffer(searchWsResponse)));
+
+        createReportTaskFile();
+
+        List<Issue> issues = sonarFacade.getNewIssues();
+        Assertions.assertThat(issues).extracting(Issue::getFile).containsExactly(new File(projectDir, "toto.java"), new File(projectDir, "titi.java"), null);
+    }
+
     @Test
     public void tesFailed1GetNewIssue() throws IOException {
         sonar.enqueue(new MockResponse().setResponseCode(404).setBody("Not Found"));
@@ -527,6 +612,114 @@ public class SonarFacadeTest {
         );
     }
 
+    @Test
+    public void testPrefetchRules() throws IOException, InterruptedException {
+        Rules.SearchResponse.Builder squidResponse = Rules.SearchResponse.newBuilder().setTotal(7);
+        for (int i = 1; i <= 7; i++) {
+            squidResponse.addRules(Rules.Rule.newBuilder().setKey("squid:" + i).setRepo("squid").setName("Rule " + i).build());
+        }
+        Rules.ShowResponse javaResponse = Rules.ShowResponse.newBuilder().setRule(Rules.Rule.newBuilder().setKey("java:789").setRepo("java").setName("Rule 789").build()).build();
+
+        sonar.enqueue(new MockResponse().setResponseCode(200).addHeader("Content-Type", "application/x-protobuf").setBody(toBuffer(squidResponse.build())));
+        sonar.enqueue(new MockResponse().setResponseCode(200).addHeader("Content-Type", "application/x-protobuf").setBody(toBuffer(javaResponse)));
+
+        sonarFacade.prefetchRules(Arrays.asList("squid:1", "squid:2", "squid:3", "squid:4", "squid:5", "squid:6", "java:789", "squid:1"));
+
+        Assertions.assertThat(sonarFacade.getRule("squid:1").getName()).isEqualTo("Rule 1");
+        Assertions.assertThat(sonarFacade.getRule("squid:6").getName()).isEqualTo("Rule 6");
+        Assertions.assertThat(sonarFacade.getRule("java:789").getName()).isEqualTo("Rule 789");
+        Assertions.assertThat(sonar.getRequestCount()).isEqualTo(2);
+        RecordedRequest searchRequest = sonar.takeRequest();
+        Assertions.assertThat(searchRequest.getPath()).startsWith("/api/rules/search?").contains("repositories=squid").contains("ps=500");
+        Assertions.assertThat(searchRequest.getRequestUrl().queryParameter("f")).isEqualTo("repo,name,mdDesc,debtRemFn,remFn");
+        RecordedRequest showRequest = sonar.takeRequest();
+        Assertions.assertThat(showRequest.getPath()).startsWith("/api/rules/show?");
+        Assertions.assertThat(showRequest.getRequestUrl().queryParameter("key")).isEqualTo("java:789");
+    }
+
+    @Test
+    public void testPrefetchRulesLastPage() throws IOException {
+        sonar.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                int page = Integer.parseInt(request.getRequestUrl().queryParameter("p"));
+                Rules.SearchResponse.Builder searchResponse = Rules.SearchResponse.newBuilder().setTotal(600);
+                for (int i = 0; i < (page == 1 ? 500 : 100); i++) {
+                    searchResponse.addRules(Rules.Rule.newBuilder().setKey("squid:" + page + "-" + i).setRepo("squid").setName("Rule " + page + "-" + i).build());
+                }
+                try {
+                    return new MockResponse().setResponseCode(200).addHeader("Content-Type", "application/x-protobuf").setBody(toBuffer(searchResponse.build()));
+                } catch (IOException e) {
+                    return new MockResponse().setResponseCode(500);
+                }
+            }
+        });
+
+        sonarFacade.prefetchRules(Arrays.asList("squid:1-1", "squid:1-2", "squid:1-3", "squid:1-4", "squid:2-5", "squid:removed"));
+
+        Assertions.assertThat(sonarFacade.getRule("squid:1-1").getName()).isEqualTo("Rule 1-1");
+        Assertions.assertThat(sonarFacade.getRule("squid:2-5").getName()).isEqualTo("Rule 2-5");
+        Assertions.assertThat(sonar.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testParallelPrefetchRules() throws IOException {
+        settings.setProperty(GitLabPlugin.GITLAB_SONAR_QUERY_PARALLELISM, 3);
+        sonarFacade = new SonarFacade(settings.asConfig(), new GitLabPluginConfiguration(settings.asConfig(), new System2()));
+
+        sonar.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String key = request.getRequestUrl().queryParameter("key");
+                try {
+                    return new MockResponse().setResponseCode(200).addHeader("Content-Type", "application/x-protobuf").setBody(toBuffer(Rules.ShowResponse.newBuilder()
+                            .setRule(Rules.Rule.newBuilder().setKey(key).setRepo(key.substring(0, 1)).setName("Rule " + key).build()).build()));
+                } catch (IOException e) {
+                    return new MockResponse().setResponseCode(500);
+                }
+            }
+        });
+
+        sonarFacade.prefetchRules(Arrays.asList("a:1", "b:1", "c:1", "d:1"));
+
+        for (String repository : Arrays.asList("a", "b", "c", "d")) {
+            Assertions.assertThat(sonarFacade.getRule(repository + ":1").getName()).isEqualTo("Rule " + repository + ":1");
+        }
+        Assertions.assertThat(sonar.getRequestCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void testPrefetchRulesFailed() throws IOException {
+        Rules.ShowResponse showResponse = Rules.ShowResponse.newBuilder().setRule(Rules.Rule.newBuilder().setKey("squid:123").setRepo("squid").setName("Rule 123").build()).build();
+
+        sonar.enqueue(new MockResponse().setResponseCode(500));
+        sonar.enqueue(new MockResponse().setResponseCode(200).addHeader("Content-Type", "application/x-protobuf").setBody(toBuffer(showResponse)));
+
+        sonarFacade.prefetchRules(Collections.singletonList("squid:123"));
+
+        Assertions.assertThat(sonarFacade.getRule("squid:123").getName()).isEqualTo("Rule 123");
+        Assertions.assertThat(sonar.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPersistentRuleCache() throws IOException {
+        settings.setProperty(GitLabPlugin.GITLAB_PERSISTENT_CACHE, true);
+        settings.setProperty(GitLabPlugin.GITLAB_CACHE_DIR, temp.newFolder().getAbsolutePath());
+
+        Rules.ShowResponse showResponse = Rules.ShowResponse.newBuilder().setRule(Rules.Rule.newBuilder().setKey("toto").setRepo("repo").setName("Toto").build()).build();
+        sonar.enqueue(new MockResponse().setResponseCode(200).addHeader("Content-Type", "application/x-protobuf").setBody(toBuffer(showResponse)));
+
+        sonarFacade = new SonarFacade(settings.asConfig(), new GitLabPluginConfiguration(settings.asConfig(), new System2()));
+        Assertions.assertThat(sonarFacade.getRule("toto").getName()).isEqualTo("Toto");
+        sonarFacade.saveRuleCache();
+
+        sonarFacade = new SonarFacade(settings.asConfig(), new GitLabPluginConfiguration(settings.asConfig(), new System2()));
+        sonarFacade.prefetchRules(Collections.singletonList("toto"));
+        Assertions.assertThat(sonarFacade.getRule("toto").getName()).isEqualTo("Toto");
+
+        Assertions.assertThat(sonar.getRequestCount()).isEqualTo(1);
+    }
+
     @Test
     public void testMetricNameFailed() {
         Assertions.assertThat(sonarFacade.getMetricName("toto")).isEqualTo("toto");
@@ -0,0 +1,119 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class SourceLineCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testLineBreaks() throws IOException {
+        File file = temp.newFile();
+        Files.write(file.toPath(), "a\nb\r\nc\r\rd\n".getBytes(StandardCharsets.UTF_8));
+
+        SourceLineCache cache = new SourceLineCache();
+        Assertions.assertThat(cache.getLine(file, 0)).isEqualTo("a");
+        Assertions.assertThat(cache.getLine(file, 1)).isEqualTo("a");
+        Assertions.assertThat(cache.getLine(file, 2)).isEqualTo("b");
+        Assertions.assertThat(cache.getLine(file, 3)).isEqualTo("c");
+        Assertions.assertThat(cache.getLine(file, 4)).isEmpty();
+        Assertions.assertThat(cache.getLine(file, 5)).isEqualTo("d");
+        Assertions.assertThat(cache.getLine(file, 6)).isNull();
+        Assertions.assertThat(Files.readAllLines(file.toPath())).containsExactly("a", "b", "c", "", "d");
+    }
+
+    @Test
+    public void testMappedOnce() throws IOException {
+        File file = temp.newFile();
+        Files.write(file.toPath(), "first\nsecond".getBytes(StandardCharsets.UTF_8));
+
+        SourceLineCache cache = new SourceLineCache();
+        Assertions.assertThat(cache.getLine(file, 2)).isEqualTo("second");
+
+        file.delete();
+        Assertions.assertThat(cache.getLine(file, 1)).isEqualTo("first");
+    }
+
+    @Test
+    public void testLargeFileKept() throws IOException {
+        File file = temp.newFile();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= 100000; i++) {
+            sb.append("line ").append(i).append('\n');
+        }
+        Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        // Index is 512 KB, more than a quarter of the cache
+        SourceLineCache cache = new SourceLineCache(1024 * 1024);
+        Assertions.assertThat(cache.getLine(file, 1)).isEqualTo("line 1");
+
+        file.delete();
+        Assertions.assertThat(cache.getLine(file, 100000)).isEqualTo("line 100000");
+        Assertions.assertThat(cache.getLine(file, 100001)).isNull();
+    }
+
+    @Test
+    public void testEvicted() throws IOException {
+        File file1 = temp.newFile();
+        Files.write(file1.toPath(), "first".getBytes(StandardCharsets.UTF_8));
+        File file2 = temp.newFile();
+        Files.write(file2.toPath(), "second".getBytes(StandardCharsets.UTF_8));
+
+        SourceLineCache cache = new SourceLineCache(100);
+        Assertions.assertThat(cache.getLine(file1, 1)).isEqualTo("first");
+        Assertions.assertThat(cache.getLine(file2, 1)).isEqualTo("second");
+
+        Files.write(file1.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertThat(cache.getLine(file1, 1)).isEqualTo("changed");
+    }
+
+    @Test
+    public void testNotReadable() throws IOException {
+        File file = temp.newFile();
+        Files.write(file.toPath(), new byte[] { (byte) 0xC3, (byte) 0x28 });
+
+        SourceLineCache cache = new SourceLineCache();
+        Assertions.assertThat(cache.getLine(file, 1)).isNull();
+        Assertions.assertThat(cache.getLine(new File(temp.getRoot(), "missing"), 1)).isNull();
+
+        File mixed = temp.newFile();
+        Files.write(mixed.toPath(), new byte[] { 'a', (byte) 0xC3, (byte) 0xA9, '\n', (byte) 0xC3, (byte) 0x28, '\n', 'b' });
+        Assertions.assertThat(cache.getLine(mixed, 1)).isEqualTo("aé");
+        Assertions.assertThat(cache.getLine(mixed, 2)).isNull();
+        Assertions.assertThat(cache.getLine(mixed, 3)).isEqualTo("b");
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        File file = temp.newFile();
+
+        SourceLineCache cache = new SourceLineCache();
+        Assertions.assertThat(cache.getLine(file, 0)).isNull();
+        Assertions.assertThat(cache.getLine(file, 1)).isNull();
+    }
+}
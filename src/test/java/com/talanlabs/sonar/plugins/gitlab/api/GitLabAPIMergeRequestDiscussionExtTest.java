@@ -0,0 +1,158 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab.api;
+
+import com.talanlabs.gitlab.api.v4.GitLabAPI;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class GitLabAPIMergeRequestDiscussionExtTest {
+
+    private static final String DISCUSSIONS = "[{\"id\":\"d1\",\"individual_note\":false,\"notes\":[" +
+            "{\"id\":1,\"body\":\"first\",\"position\":{\"base_sha\":\"base\",\"start_sha\":\"start\",\"head_sha\":\"head\",\"new_path\":\"src/Foo.java\",\"new_line\":10}}," +
+            "{\"id\":2,\"body\":\"reply\"}]}," +
+            "{\"id\":\"d2\",\"individual_note\":true,\"notes\":[" +
+            "{\"id\":3,\"body\":\"second\",\"position\":{\"base_sha\":\"base\",\"start_sha\":\"start\",\"head_sha\":\"head\",\"new_path\":\"src/Bar.java\",\"new_line\":2}}]}]";
+
+    @Rule
+    public MockWebServer gitlab = new MockWebServer();
+
+    private GitLabAPIMergeRequestDiscussionExt discussionExt;
+
+    @Before
+    public void before() {
+        discussionExt = new GitLabAPIMergeRequestDiscussionExt(GitLabAPI.connect(String.format("http://%s:%d", gitlab.getHostName(), gitlab.getPort()), "123456789"));
+    }
+
+    @Test
+    public void testHasDiscussion() throws IOException {
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody(DISCUSSIONS));
+
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 2, "src/Foo.java", 10, "first", "base", "head")).isTrue();
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 2, "src/Bar.java", 2, "second", "base", "head")).isTrue();
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 2, "src/Foo.java", 11, "first", "base", "head")).isFalse();
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 2, "src/Foo.java", 10, "other", "base", "head")).isFalse();
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 2, "src/Foo.java", 10, "first", "base", "newhead")).isFalse();
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 2, "src/Bar.java", 2, "first", "base", "head")).isFalse();
+
+        Assertions.assertThat(gitlab.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testNoDiscussion() throws IOException {
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 2, "src/Foo.java", 10, "first", "base", "head")).isFalse();
+    }
+
+    @Test
+    public void testCachedPerMergeRequest() throws IOException {
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody(DISCUSSIONS));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody(DISCUSSIONS));
+
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 2, "src/Foo.java", 10, "first", "base", "head")).isTrue();
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 3, "src/Foo.java", 10, "first", "base", "head")).isFalse();
+
+        discussionExt.addDiscussion(1, 3, "src/Foo.java", 10, "first", "base", "head");
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 3, "src/Foo.java", 10, "first", "base", "head")).isTrue();
+        Assertions.assertThat(gitlab.getRequestCount()).isEqualTo(2);
+
+        // Another analysis loads the discussions again
+        GitLabAPIMergeRequestDiscussionExt other = new GitLabAPIMergeRequestDiscussionExt(GitLabAPI.connect(String.format("http://%s:%d", gitlab.getHostName(), gitlab.getPort()), "123456789"));
+        Assertions.assertThat(other.hasDiscussion(1, 2, "src/Bar.java", 2, "second", "base", "head")).isTrue();
+
+        Assertions.assertThat(gitlab.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testInvalidate() throws IOException {
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody(DISCUSSIONS));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+
+        Assertions.assertThat(discussionExt.getDiscussions(1, 2)).hasSize(2);
+        Assertions.assertThat(discussionExt.getDiscussions(1, 2)).hasSize(2);
+        Assertions.assertThat(gitlab.getRequestCount()).isEqualTo(1);
+
+        discussionExt.invalidate(1, 2);
+        Assertions.assertThat(discussionExt.getDiscussions(1, 2)).isEmpty();
+        Assertions.assertThat(gitlab.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testLoadFailed() throws IOException {
+        gitlab.enqueue(new MockResponse().setResponseCode(404));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody(DISCUSSIONS));
+
+        Assertions.assertThatThrownBy(() -> discussionExt.hasDiscussion(1, 2, "src/Foo.java", 10, "first", "base", "head")).isInstanceOf(IOException.class);
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 2, "src/Foo.java", 10, "first", "base", "head")).isTrue();
+    }
+
+    @Test
+    public void testGetDiscussions() throws IOException {
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody(DISCUSSIONS));
+
+        Assertions.assertThat(discussionExt.getDiscussions(1, 2)).extracting(GitlabDiscussionStatus::getId).containsExactly("d1", "d2");
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 2, "src/Foo.java", 10, "first", "base", "head")).isTrue();
+
+        Assertions.assertThat(gitlab.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUpdateNoteAndResolveDiscussion() throws IOException, InterruptedException {
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("{\"id\":1,\"body\":\"new body\"}"));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("{\"id\":\"d1\",\"individual_note\":false,\"notes\":[]}"));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("{\"id\":\"d1\",\"individual_note\":false,\"notes\":[]}"));
+
+        Assertions.assertThat(discussionExt.updateNote(1, 2, "d1", 1, "new body").getBody()).isEqualTo("new body");
+        Assertions.assertThat(discussionExt.resolveDiscussion(1, 2, "d1", true).getId()).isEqualTo("d1");
+        Assertions.assertThat(discussionExt.resolveDiscussion(1, 2, "d1", false).getId()).isEqualTo("d1");
+
+        RecordedRequest update = gitlab.takeRequest();
+        Assertions.assertThat(update.getMethod()).isEqualTo("PUT");
+        Assertions.assertThat(update.getPath()).startsWith("/api/v4/projects/1/merge_requests/2/discussions/d1/notes/1?body=new");
+        RecordedRequest resolve = gitlab.takeRequest();
+        Assertions.assertThat(resolve.getMethod()).isEqualTo("PUT");
+        Assertions.assertThat(resolve.getPath()).isEqualTo("/api/v4/projects/1/merge_requests/2/discussions/d1?resolved=true");
+        RecordedRequest unresolve = gitlab.takeRequest();
+        Assertions.assertThat(unresolve.getMethod()).isEqualTo("PUT");
+        Assertions.assertThat(unresolve.getPath()).isEqualTo("/api/v4/projects/1/merge_requests/2/discussions/d1?resolved=false");
+    }
+
+    @Test
+    public void testHttpClientTransport() throws IOException, InterruptedException {
+        GitLabAPI gitLabAPI = GitLabAPI.connect(String.format("http://%s:%d", gitlab.getHostName(), gitlab.getPort()), "123456789");
+        discussionExt = new GitLabAPIMergeRequestDiscussionExt(gitLabAPI, new HttpClientTransport(String.format("http://%s:%d", gitlab.getHostName(), gitlab.getPort()), "123456789", false, null, 1));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody(DISCUSSIONS));
+        gitlab.enqueue(new MockResponse().setResponseCode(201).setBody("{\"id\":\"d3\",\"individual_note\":false,\"notes\":[]}"));
+
+        Assertions.assertThat(discussionExt.hasDiscussion(1, 2, "src/Foo.java", 10, "first", "base", "head")).isTrue();
+        Assertions.assertThat(discussionExt.createDiscussion(1, 2, "src/Foo.java", 11, "new", "base", "start", "head").getId()).isEqualTo("d3");
+
+        Assertions.assertThat(gitlab.takeRequest().getPath()).isEqualTo("/api/v4/projects/1/merge_requests/2/discussions?per_page=100");
+        RecordedRequest create = gitlab.takeRequest();
+        Assertions.assertThat(create.getMethod()).isEqualTo("POST");
+        Assertions.assertThat(create.getPath()).startsWith("/api/v4/projects/1/merge_requests/2/discussions?body=new").contains("new_line").contains("=11");
+    }
+}
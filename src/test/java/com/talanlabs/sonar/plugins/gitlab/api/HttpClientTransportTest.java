@@ -0,0 +1,174 @@
+/*
+ * SonarQube :: GitLab Plugin
+ * Copyright (C) 2016-2025 Talanlabs
+ * gabriel.allaigre@gmail.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package com.talanlabs.sonar.plugins.gitlab.api;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.util.Collections;
+
+public class HttpClientTransportTest {
+
+    @Rule
+    public MockWebServer gitlab = new MockWebServer();
+
+    private HttpClientTransport transport;
+
+    @Before
+    public void before() {
+        transport = new HttpClientTransport(String.format("http://%s:%d/", gitlab.getHostName(), gitlab.getPort()), "123456789", false, null, 4);
+    }
+
+    @Test
+    public void testExecute() throws IOException, InterruptedException {
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("{\"id\":1,\"body\":\"new body\",\"unknown\":true}"));
+
+        Assertions.assertThat(transport.execute("PUT", "/projects/1/merge_requests/2/discussions/d1/notes/1?body=new+body", GitlabNote.class).getBody()).isEqualTo("new body");
+
+        RecordedRequest request = gitlab.takeRequest();
+        Assertions.assertThat(request.getMethod()).isEqualTo("PUT");
+        Assertions.assertThat(request.getPath()).isEqualTo("/api/v4/projects/1/merge_requests/2/discussions/d1/notes/1?body=new+body");
+        Assertions.assertThat(request.getHeader("PRIVATE-TOKEN")).isEqualTo("123456789");
+    }
+
+    @Test
+    public void testGetAllFollowNextLink() throws IOException, InterruptedException {
+        String next = String.format("http://%s:%d/api/v4/projects/1/merge_requests/2/discussions?per_page=100&page=2", gitlab.getHostName(), gitlab.getPort());
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setHeader("Link", "<" + next + ">; rel=\"next\", <" + next + ">; rel=\"last\"").setBody("[{\"id\":\"d1\",\"notes\":[]}]"));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[{\"id\":\"d2\",\"notes\":[]}]"));
+
+        Assertions.assertThat(transport.getAll("/projects/1/merge_requests/2/discussions", GitlabDiscussionStatus[].class)).extracting(GitlabDiscussionStatus::getId).containsExactly("d1", "d2");
+
+        Assertions.assertThat(gitlab.takeRequest().getPath()).isEqualTo("/api/v4/projects/1/merge_requests/2/discussions?per_page=100");
+        Assertions.assertThat(gitlab.takeRequest().getPath()).isEqualTo("/api/v4/projects/1/merge_requests/2/discussions?per_page=100&page=2");
+    }
+
+    @Test
+    public void testGetAllKnownTotalPages() throws IOException {
+        gitlab.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                String page = path != null && path.contains("&page=") ? path.substring(path.indexOf("&page=") + 6) : "1";
+                return new MockResponse().setResponseCode(200).setHeader("X-Total-Pages", "6").setBody("[{\"id\":\"d" + page + "\",\"notes\":[]}]");
+            }
+        });
+
+        Assertions.assertThat(transport.getAll("/projects/1/merge_requests/2/discussions", GitlabDiscussionStatus[].class)).extracting(GitlabDiscussionStatus::getId)
+                .containsExactly("d1", "d2", "d3", "d4", "d5", "d6");
+        Assertions.assertThat(gitlab.getRequestCount()).isEqualTo(6);
+    }
+
+    @Test
+    public void testGetAllKeyset() throws IOException, InterruptedException {
+        String next = String.format("http://%s:%d/api/v4/projects?pagination=keyset&order_by=id&sort=asc&per_page=100&id_after=2", gitlab.getHostName(), gitlab.getPort());
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setHeader("Link", "<" + next + ">; rel=\"next\"").setBody("[{\"id\":1},{\"id\":2}]"));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("[{\"id\":3}]"));
+
+        Assertions.assertThat(transport.getAll(Paginations.withKeyset("/projects"), GitlabNote[].class)).extracting(GitlabNote::getId).containsExactly(1, 2, 3);
+
+        Assertions.assertThat(gitlab.takeRequest().getPath()).isEqualTo("/api/v4/projects?pagination=keyset&order_by=id&sort=asc&per_page=100");
+        Assertions.assertThat(gitlab.takeRequest().getPath()).endsWith("&id_after=2");
+    }
+
+    @Test
+    public void testKeepAlive() throws IOException, InterruptedException {
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("{\"id\":1}"));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("{\"id\":2}"));
+
+        transport.execute("GET", "/projects/1", GitlabNote.class);
+        transport.execute("GET", "/projects/2", GitlabNote.class);
+
+        Assertions.assertThat(gitlab.takeRequest().getSequenceNumber()).isEqualTo(0);
+        // second request is sent on the same connection
+        Assertions.assertThat(gitlab.takeRequest().getSequenceNumber()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRedirectSameOrigin() throws IOException, InterruptedException {
+        gitlab.enqueue(new MockResponse().setResponseCode(301).setHeader("Location", "/api/v4/projects/3/merge_requests/2/discussions/d1/notes/1?body=new+body"));
+        gitlab.enqueue(new MockResponse().setResponseCode(200).setBody("{\"id\":1,\"body\":\"new body\"}"));
+
+        Assertions.assertThat(transport.execute("PUT", "/projects/1/merge_requests/2/discussions/d1/notes/1?body=new+body", GitlabNote.class).getBody()).isEqualTo("new body");
+
+        gitlab.takeRequest();
+        RecordedRequest redirected = gitlab.takeRequest();
+        Assertions.assertThat(redirected.getMethod()).isEqualTo("PUT");
+        Assertions.assertThat(redirected.getPath()).isEqualTo("/api/v4/projects/3/merge_requests/2/discussions/d1/notes/1?body=new+body");
+        Assertions.assertThat(redirected.getHeader("PRIVATE-TOKEN")).isEqualTo("123456789");
+    }
+
+    @Test
+    public void testRedirectOtherOrigin() throws IOException {
+        try (MockWebServer other = new MockWebServer()) {
+            other.start();
+            gitlab.enqueue(new MockResponse().setResponseCode(302).setHeader("Location", other.url("/api/v4/projects/1").toString()));
+
+            Assertions.assertThatThrownBy(() -> transport.execute("GET", "/projects/1", GitlabNote.class)).isInstanceOf(IOException.class).hasMessageContaining("not followed");
+            Assertions.assertThat(other.getRequestCount()).isZero();
+        }
+    }
+
+    @Test
+    public void testTooManyRedirects() {
+        for (int i = 0; i < 6; i++) {
+            gitlab.enqueue(new MockResponse().setResponseCode(302).setHeader("Location", "/api/v4/projects/1"));
+        }
+
+        Assertions.assertThatThrownBy(() -> transport.execute("GET", "/projects/1", GitlabNote.class)).isInstanceOf(IOException.class).hasMessageContaining("Too many redirects");
+        Assertions.assertThat(gitlab.getRequestCount()).isEqualTo(6);
+    }
+
+    @Test
+    public void testError() {
+        gitlab.enqueue(new MockResponse().setResponseCode(404).setBody("{\"message\":\"404 Not found\"}"));
+
+        Assertions.assertThatThrownBy(() -> transport.execute("GET", "/projects/1", GitlabNote.class)).isInstanceOf(IOException.class).hasMessageContaining("404");
+    }
+
+    @Test
+    public void testRateLimited() {
+        gitlab.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "7").setBody("Retry later"));
+
+        Assertions.assertThatThrownBy(() -> transport.execute("POST", "/projects/1/merge_requests/2/discussions", GitlabNote.class)).isInstanceOf(GitLabRateLimitException.class)
+                .hasMessageContaining("429").extracting(e -> ((GitLabRateLimitException) e).getRetryAfter()).isEqualTo(Duration.ofSeconds(7));
+    }
+
+    @Test
+    public void testRetryAfter() {
+        long now = 1_700_000_000_000L;
+        Assertions.assertThat(HttpClientTransport.retryAfter(headers("Retry-After", "30"), now)).isEqualTo(Duration.ofSeconds(30));
+        Assertions.assertThat(HttpClientTransport.retryAfter(headers("Retry-After", "Tue, 14 Nov 2023 22:13:40 GMT"), now)).isEqualTo(Duration.ofSeconds(20));
+        Assertions.assertThat(HttpClientTransport.retryAfter(headers("RateLimit-Reset", "1700000010"), now)).isEqualTo(Duration.ofSeconds(10));
+        Assertions.assertThat(HttpClientTransport.retryAfter(headers("RateLimit-Reset", "1600000000"), now)).isEqualTo(Duration.ZERO);
+        Assertions.assertThat(HttpClientTransport.retryAfter(headers("Retry-After", "later"), now)).isNull();
+        Assertions.assertThat(HttpClientTransport.retryAfter(headers("X-Other", "1"), now)).isNull();
+    }
+
+    private static HttpHeaders headers(String name, String value) {
+        return HttpHeaders.of(Collections.singletonMap(name, Collections.singletonList(value)), (n, v) -> true);
+    }
+}